@@ -0,0 +1,36 @@
+// k6 load test for api/v1/users/, run once per thread mode and compare p99 and throughput:
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=2000 loadtest/users.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '2000');
+
+export const options = {
+    scenarios: {
+        users: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const page = http.get(`${BASE_URL}/api/v1/users/?limit=100`).json();
+    return { ids: page.items.map((user) => user.id) };
+}
+
+export default function (data) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const one = http.get(`${BASE_URL}/api/v1/users/${id}`, { tags: { name: 'getById' } });
+    check(one, { 'getById 200': (r) => r.status === 200 });
+
+    const page = http.get(`${BASE_URL}/api/v1/users/?limit=50`, { tags: { name: 'getPage' } });
+    check(page, { 'getPage 200': (r) => r.status === 200 });
+}
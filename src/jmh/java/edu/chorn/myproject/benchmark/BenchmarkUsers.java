@@ -0,0 +1,85 @@
+package edu.chorn.myproject.benchmark;
+
+/*
+    @author chorn
+    @project myproject
+    @class BenchmarkUsers
+    @version 1.0.0
+    @since 18.10.2026 - 17.35
+*/
+
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.service.UserBloomFilterService;
+import edu.chorn.myproject.service.UserPartitionService;
+import edu.chorn.myproject.service.UserService;
+import edu.chorn.myproject.service.UserWriteBehindService;
+import edu.chorn.myproject.util.CollectionRevision;
+import edu.chorn.myproject.util.UserPartitions;
+import edu.chorn.myproject.util.UserReadRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+// shared fixtures, the same data for every benchmark
+final class BenchmarkUsers {
+
+    private BenchmarkUsers() {
+    }
+
+    static User user(int i) {
+        return new User(String.format("%024x", i), "name" + i, String.format("%06d", i),
+                "description of user number " + i + " used by the benchmarks");
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    // plain UserService without Spring proxies: measures service + repository, not the cache;
+    // getById caches by hand, so the cache is a no-op one
+    static UserService userService(UserRepository repository) {
+        return new UserService(repository, null, null, new NoOpCacheManager(), new UserProperties(),
+                new SimpleMeterRegistry(), new CollectionRevision(), noBloomFilter(repository),
+                singlePartition(repository), UserReadRouting.primary(null));
+    }
+
+    // write-behind disabled (never started), writes stay synchronous
+    static UserWriteBehindService synchronousWrites(UserRepository repository) {
+        return new UserWriteBehindService(repository, null, new ConcurrentMapCacheManager(), new UserProperties(),
+                new SimpleMeterRegistry(), new CollectionRevision(), noBloomFilter(repository),
+                singlePartition(repository));
+    }
+
+    // disabled (never started), every id might exist
+    static UserBloomFilterService noBloomFilter(UserRepository repository) {
+        return new UserBloomFilterService(repository, null, new UserProperties(), new SimpleMeterRegistry(),
+                singlePartition(repository));
+    }
+
+    // one partition, UserService stays on the repository
+    static UserPartitionService singlePartition(UserRepository repository) {
+        return new UserPartitionService(repository, UserPartitions.single(noMongo(), "benchmark"),
+                new UserProperties(), new SimpleMeterRegistry());
+    }
+
+    // stands in for the partition's template, the benchmarked paths never reach it
+    static MongoOperations noMongo() {
+        return (MongoOperations) Proxy.newProxyInstance(
+                MongoOperations.class.getClassLoader(),
+                new Class<?>[]{MongoOperations.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
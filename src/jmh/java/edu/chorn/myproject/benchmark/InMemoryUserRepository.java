@@ -0,0 +1,61 @@
+package edu.chorn.myproject.benchmark;
+
+/*
+    @author chorn
+    @project myproject
+    @class InMemoryUserRepository
+    @version 1.0.0
+    @since 18.10.2026 - 17.30
+*/
+
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// map-backed stand-in for the Mongo repository, only the methods the benchmarks touch
+final class InMemoryUserRepository {
+
+    private InMemoryUserRepository() {
+    }
+
+    static UserRepository create() {
+        Map<String, User> users = new ConcurrentHashMap<>();
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save", "insert" -> {
+                        User user = (User) args[0];
+                        if (user.getId() == null) {
+                            user.setId(UUID.randomUUID().toString());
+                        }
+                        users.put(user.getId(), user);
+                        yield user;
+                    }
+                    case "findById" -> Optional.ofNullable(users.get((String) args[0]));
+                    case "existsById" -> users.containsKey((String) args[0]);
+                    case "deleteById" -> {
+                        users.remove((String) args[0]);
+                        yield null;
+                    }
+                    case "findAll" -> new ArrayList<>(users.values());
+                    case "findAllByOrderByIdAsc" -> users.values().stream()
+                            .sorted(Comparator.comparing(User::getId))
+                            .limit(((Limit) args[0]).max())
+                            .toList();
+                    case "count" -> (long) users.size();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository" + users.keySet();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,74 @@
+package edu.chorn.myproject.benchmark;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserCollectionsBenchmark
+    @version 1.0.0
+    @since 18.10.2026 - 17.45
+*/
+
+import edu.chorn.myproject.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// User.equals/hashCode work on the id only, these keep an eye on that staying cheap
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserCollectionsBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<User> users;
+    private Set<User> userSet;
+    private Map<User, Integer> userMap;
+
+    @Setup
+    public void setUp() {
+        users = BenchmarkUsers.users(size);
+        userSet = new HashSet<>(users);
+        userMap = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            userMap.put(users.get(i), i);
+        }
+    }
+
+    @Benchmark
+    public int hashCodeOfUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(size)).hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOfCopy() {
+        User user = users.get(ThreadLocalRandom.current().nextInt(size));
+        return user.equals(new User(user.getId(), user.getName(), user.getCode(), user.getDescription()));
+    }
+
+    @Benchmark
+    public boolean setContains() {
+        return userSet.contains(users.get(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    @Benchmark
+    public Integer mapGet() {
+        return userMap.get(users.get(ThreadLocalRandom.current().nextInt(size)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Set<User> buildSet() {
+        return new HashSet<>(users);
+    }
+}
@@ -0,0 +1,90 @@
+package edu.chorn.myproject.benchmark;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserControllerBenchmark
+    @version 1.0.0
+    @since 18.10.2026 - 17.55
+*/
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.chorn.myproject.config.WebConfig;
+import edu.chorn.myproject.controller.UserRestController;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// full MVC dispatch (mapping, argument resolution, Jackson) without a socket
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserControllerBenchmark {
+
+    private static final int USERS = 10_000;
+
+    // response format, negotiated through Accept
+    @Param({MediaType.APPLICATION_JSON_VALUE, WebConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    private String accept;
+
+    private MockMvc mockMvc;
+    private List<User> users;
+    private byte[] newUserJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        UserRepository repository = InMemoryUserRepository.create();
+        users = BenchmarkUsers.users(USERS);
+        users.forEach(repository::save);
+
+        WebConfig webConfig = new WebConfig();
+        MappingJackson2SmileHttpMessageConverter smile = webConfig.smileHttpMessageConverter(objectMapper);
+        MappingJackson2CborHttpMessageConverter cbor = webConfig.cborHttpMessageConverter(objectMapper);
+        UserRestController controller = new UserRestController(BenchmarkUsers.userService(repository),
+                BenchmarkUsers.synchronousWrites(repository), null, objectMapper, smile, cbor);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper), smile, cbor)
+                .build();
+        newUserJson = objectMapper.writeValueAsBytes(new User("created", "000000", "created by the benchmark"));
+    }
+
+    @Benchmark
+    public MvcResult getById() throws Exception {
+        String id = users.get(ThreadLocalRandom.current().nextInt(USERS)).getId();
+        return mockMvc.perform(get("/api/v1/users/{id}", id).accept(accept)).andReturn();
+    }
+
+    // one page of 100, where the encoding cost dominates
+    @Benchmark
+    public MvcResult showAll() throws Exception {
+        return mockMvc.perform(get("/api/v1/users/").param("limit", "100").accept(accept)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult create() throws Exception {
+        return mockMvc.perform(post("/api/v1/users/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(accept)
+                        .content(newUserJson))
+                .andReturn();
+    }
+}
@@ -0,0 +1,58 @@
+package edu.chorn.myproject.benchmark;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserServiceBenchmark
+    @version 1.0.0
+    @since 18.10.2026 - 17.50
+*/
+
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private UserService userService;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        UserRepository repository = InMemoryUserRepository.create();
+        userService = BenchmarkUsers.userService(repository);
+        users = BenchmarkUsers.users(USERS);
+        users.forEach(repository::save);
+    }
+
+    @Benchmark
+    public User getById() {
+        return userService.getById(users.get(ThreadLocalRandom.current().nextInt(USERS)).getId());
+    }
+
+    @Benchmark
+    public User create() {
+        return userService.create(new User("created", "000000", "created by the benchmark"));
+    }
+
+    @Benchmark
+    public User update() {
+        User user = users.get(ThreadLocalRandom.current().nextInt(USERS));
+        User updated = new User(user.getId(), user.getName(), user.getCode(), "updated");
+        updated.setVersion(0L);
+        return userService.update(updated);
+    }
+}
@@ -0,0 +1,97 @@
+package edu.chorn.myproject.benchmark;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserWireFormatBenchmark
+    @version 1.0.0
+    @since 18.10.2026 - 17.40
+*/
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import edu.chorn.myproject.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// serialize/deserialize cost per wire format; the payload sizes are printed once per fork
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserWireFormatBenchmark {
+
+    private static final TypeReference<List<User>> USER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private List<User> page;
+    private byte[] userBytes;
+    private byte[] pageBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        // configured like the ObjectMapper Spring Boot hands to the controllers,
+        // the binary ones are copies of it as in WebConfig
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper = switch (format) {
+            case "smile" -> json.copyWith(new SmileFactory());
+            case "cbor" -> json.copyWith(new CBORFactory());
+            default -> json;
+        };
+        user = BenchmarkUsers.user(42);
+        page = BenchmarkUsers.users(100);
+        userBytes = objectMapper.writeValueAsBytes(user);
+        pageBytes = objectMapper.writeValueAsBytes(page);
+        System.out.printf("%n%s: user %d bytes, page of 100 %d bytes, gzipped %d bytes%n",
+                format, userBytes.length, pageBytes.length, gzip(pageBytes).length);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws IOException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User deserializeUser() throws IOException {
+        return objectMapper.readValue(userBytes, User.class);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<User> deserializePage() throws IOException {
+        return objectMapper.readValue(pageBytes, USER_LIST);
+    }
+
+    // what server.compression adds on top of serializePage
+    @Benchmark
+    public byte[] serializeGzippedPage() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(page));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
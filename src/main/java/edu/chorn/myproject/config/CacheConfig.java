@@ -0,0 +1,29 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class CacheConfig
+    @version 1.0.0
+    @since 18.10.2026 - 11.05
+*/
+
+import edu.chorn.myproject.util.CollectionRevision;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// caffeine spec and cache names live in application.properties,
+// hit/miss/eviction stats are published as cache.* metrics on /actuator/metrics
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+
+    // ETag of the user list reads, advanced along with the users cache
+    @Bean
+    public CollectionRevision usersRevision() {
+        return new CollectionRevision();
+    }
+}
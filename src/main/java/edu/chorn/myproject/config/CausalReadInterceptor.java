@@ -0,0 +1,57 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class CausalReadInterceptor
+    @version 1.0.0
+    @since 19.10.2026 - 19.00
+*/
+
+import edu.chorn.myproject.util.CausalContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.bson.BsonTimestamp;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+
+// X-Operation-Time carries read-your-writes over stateless requests: a write answers with the
+// operation time of its causal session, a read sent with it is not served from before that write
+public class CausalReadInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String OPERATION_TIME = "X-Operation-Time";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        BsonTimestamp operationTime;
+        try {
+            operationTime = CausalContext.parse(request.getHeader(OPERATION_TIME));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return false;
+        }
+        // set while the handler runs, before the body commits the response
+        CausalContext.open(operationTime, time -> response.setHeader(OPERATION_TIME, CausalContext.format(time)));
+        return true;
+    }
+
+    // the rest of a streamed response runs on another thread without the context
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        CausalContext.close();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        CausalContext.close();
+    }
+}
@@ -0,0 +1,64 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class ConcurrencyLimitConfig
+    @version 1.0.0
+    @since 19.10.2026 - 14.05
+*/
+
+import edu.chorn.myproject.util.AdaptiveLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// adaptive concurrency limits of api/v1/users/, switched on by users.limiter.enabled=true
+@Configuration
+@ConditionalOnProperty(prefix = "users.limiter", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final AdaptiveLimiter reads;
+    private final AdaptiveLimiter writes;
+
+    public ConcurrencyLimitConfig(UserProperties userProperties, MeterRegistry meterRegistry) {
+        reads = limiter("read", userProperties.getLimiter().getRead(), meterRegistry);
+        writes = limiter("write", userProperties.getLimiter().getWrite(), meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // the change feed is open for as long as the client listens, it holds no Mongo work;
+        // _bulk takes a permit but gives no latency sample, see ConcurrencyLimitInterceptor
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(reads, writes))
+                .addPathPatterns("/api/v1/users/**")
+                .excludePathPatterns("/api/v1/users/changes");
+    }
+
+    private static AdaptiveLimiter limiter(String operation, UserProperties.Limiter.Limit limit,
+                                           MeterRegistry meterRegistry) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(operation, limit.getInitial(), limit.getMin(), limit.getMax());
+        Gauge.builder("users.limiter.limit", limiter, AdaptiveLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("users.limiter.in.flight", limiter, AdaptiveLimiter::getInFlight)
+                .description("Requests holding a permit")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("users.limiter.rtt", limiter, AdaptiveLimiter::getRttMillis)
+                .description("Short-term latency the limit follows, streamed and bulk requests left out")
+                .tag("operation", operation)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("users.limiter.rejected", limiter, AdaptiveLimiter::getRejected)
+                .description("Requests shed with a 503")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
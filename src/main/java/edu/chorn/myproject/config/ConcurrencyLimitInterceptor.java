@@ -0,0 +1,86 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class ConcurrencyLimitInterceptor
+    @version 1.0.0
+    @since 19.10.2026 - 13.50
+*/
+
+import edu.chorn.myproject.util.AdaptiveLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+
+// sheds requests over the adaptive limit with a 503 before they reach UserService;
+// reads and writes have a limiter each, so slow writes cannot starve the reads
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String LIMITER = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+    private static final String STARTED = ConcurrencyLimitInterceptor.class.getName() + ".started";
+    private static final String STREAMED = ConcurrencyLimitInterceptor.class.getName() + ".streamed";
+
+    private final AdaptiveLimiter reads;
+    private final AdaptiveLimiter writes;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // the permit was taken on the first dispatch
+            return true;
+        }
+        AdaptiveLimiter limiter = isRead(request) ? reads : writes;
+        if (!limiter.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    "Too many concurrent " + limiter.getName() + " requests");
+            return false;
+        }
+        request.setAttribute(LIMITER, limiter);
+        request.setAttribute(STARTED, System.nanoTime());
+        return true;
+    }
+
+    // streamed responses keep their permit until the async dispatch completes
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        request.setAttribute(STREAMED, Boolean.TRUE);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(LIMITER) instanceof AdaptiveLimiter limiter)) {
+            return;
+        }
+        request.removeAttribute(LIMITER);
+        if (request.getAttribute(STREAMED) != null || isBulk(request)) {
+            limiter.release();
+        } else {
+            limiter.release(System.nanoTime() - (long) request.getAttribute(STARTED));
+        }
+    }
+
+    // a bulk request takes as long as its body is big, its time would read as overload
+    private static boolean isBulk(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/_bulk");
+    }
+
+    // POST _mget is a read with a body
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || request.getRequestURI().endsWith("/_mget");
+    }
+}
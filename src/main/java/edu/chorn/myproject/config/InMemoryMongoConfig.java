@@ -0,0 +1,82 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class InMemoryMongoConfig
+    @version 1.0.0
+    @since 18.10.2026 - 22.15
+*/
+
+import com.mongodb.ConnectionString;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import edu.chorn.myproject.engine.IndexedMemoryBackend;
+import edu.chorn.myproject.util.MongoSnapshotStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.net.InetSocketAddress;
+
+// inmemory profile: the repositories, templates and the reactive client talk to an
+// in-process engine on a loopback port instead of spring.data.mongodb.host, no Mongo needed.
+// Equalities on indexed fields and the configured substring indexes read an index, but a text
+// index is an empty stand-in and $text fails: it is for tests and development only, comes with
+// the dev and test profile groups and refuses to start without one of them
+@Configuration
+@Profile("inmemory")
+public class InMemoryMongoConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public MongoServer inMemoryMongoServer(Environment environment, ObjectProvider<UserProperties> userProperties) {
+        if (!environment.acceptsProfiles(Profiles.of("dev | test"))) {
+            throw new IllegalStateException("The inmemory engine is for tests and development only, "
+                    + "activate it through the dev or test profile");
+        }
+        MemoryBackend backend = new IndexedMemoryBackend(
+                userProperties.getIfAvailable(UserProperties::new).getInMemory().getSubstringIndexes());
+        // stands in for a replica set: change streams with resume tokens
+        backend.enableOplog();
+        MongoServer server = new MongoServer(backend);
+        server.bind("127.0.0.1", 0);
+        return server;
+    }
+
+    // replaces the connection details built from spring.data.mongodb.*;
+    // the snapshot is loaded first, so no client ever sees the engine empty
+    @Bean
+    public MongoConnectionDetails inMemoryMongoConnectionDetails(MongoServer inMemoryMongoServer,
+                                                                 ObjectProvider<MongoSnapshotStore> snapshots,
+                                                                 @Value("${spring.data.mongodb.database}") String database) {
+        snapshots.ifAvailable(MongoSnapshotStore::load);
+        ConnectionString connectionString = connectionString(inMemoryMongoServer, database);
+        return () -> connectionString;
+    }
+
+    // saved on shutdown, before the engine stops, and every snapshot-interval when one is set
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "users.in-memory", name = "snapshot-file")
+    public MongoSnapshotStore inMemoryMongoSnapshots(MongoServer inMemoryMongoServer,
+                                                     @Value("${spring.data.mongodb.database}") String database,
+                                                     UserProperties userProperties) {
+        UserProperties.InMemory config = userProperties.getInMemory();
+        MongoSnapshotStore snapshots = new MongoSnapshotStore(connectionString(inMemoryMongoServer, database),
+                config.getSnapshotFile());
+        if (config.getSnapshotInterval() != null) {
+            snapshots.saveEvery(config.getSnapshotInterval());
+        }
+        return snapshots;
+    }
+
+    static ConnectionString connectionString(MongoServer server, String database) {
+        InetSocketAddress address = server.getLocalAddress();
+        return new ConnectionString("mongodb://" + address.getHostString() + ":" + address.getPort() + "/" + database);
+    }
+}
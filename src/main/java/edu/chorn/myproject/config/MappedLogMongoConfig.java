@@ -0,0 +1,43 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class MappedLogMongoConfig
+    @version 1.0.0
+    @since 18.10.2026 - 23.55
+*/
+
+import com.mongodb.ConnectionString;
+import de.bwaldvogel.mongo.MongoServer;
+import edu.chorn.myproject.engine.MappedLogBackend;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// mapped-log profile: like inmemory, but the engine keeps every collection in an
+// append-only memory-mapped log under users.mapped-log.directory and replays it on start.
+// It has the same hash and substring indexes and the same gap: no $text, so the search
+// endpoints fail; a deployment that needs search runs on Mongo
+@Configuration
+@Profile("mapped-log")
+public class MappedLogMongoConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public MongoServer mappedLogMongoServer(UserProperties userProperties) {
+        UserProperties.MappedLog config = userProperties.getMappedLog();
+        MongoServer server = new MongoServer(new MappedLogBackend(config.getDirectory(), config.isSync(),
+                config.getCompactionInterval(), config.getCompactionGarbageRatio(), config.getSubstringIndexes()));
+        server.bind("127.0.0.1", 0);
+        return server;
+    }
+
+    @Bean
+    public MongoConnectionDetails mappedLogMongoConnectionDetails(MongoServer mappedLogMongoServer,
+                                                                  @Value("${spring.data.mongodb.database}") String database) {
+        ConnectionString connectionString = InMemoryMongoConfig.connectionString(mappedLogMongoServer, database);
+        return () -> connectionString;
+    }
+}
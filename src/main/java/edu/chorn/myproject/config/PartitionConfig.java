@@ -0,0 +1,77 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class PartitionConfig
+    @version 1.0.0
+    @since 19.10.2026 - 17.35
+*/
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import edu.chorn.myproject.util.UserPartitions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+// users.partitions.databases adds partitions next to the default database; without it there is
+// one partition and UserService works on the repository as before
+@Configuration
+public class PartitionConfig {
+
+    @Bean(destroyMethod = "close")
+    public UserPartitions userPartitions(MongoTemplate mongoTemplate, MongoClient mongoClient,
+                                         ReactiveMongoTemplate reactiveMongoTemplate,
+                                         com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient,
+                                         MongoConverter mongoConverter, UserProperties userProperties) {
+        UserProperties.Partitions config = userProperties.getPartitions();
+        String defaultDatabase = mongoTemplate.getDb().getName();
+        if (config.getDatabases().isEmpty()) {
+            return UserPartitions.single(mongoTemplate, defaultDatabase);
+        }
+
+        List<MongoOperations> partitions = new ArrayList<>();
+        List<ReactiveMongoOperations> reactivePartitions = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Closeable> clients = new ArrayList<>();
+        partitions.add(mongoTemplate);
+        reactivePartitions.add(reactiveMongoTemplate);
+        names.add(defaultDatabase);
+        for (String database : config.getDatabases()) {
+            if (database.startsWith("mongodb://") || database.startsWith("mongodb+srv://")) {
+                // a partition on another server, with a client of its own
+                ConnectionString connectionString = new ConnectionString(database);
+                MongoClient client = MongoClients.create(connectionString);
+                com.mongodb.reactivestreams.client.MongoClient reactiveClient =
+                        com.mongodb.reactivestreams.client.MongoClients.create(connectionString);
+                clients.add(client);
+                clients.add(reactiveClient);
+                partitions.add(new MongoTemplate(
+                        new SimpleMongoClientDatabaseFactory(client, connectionString.getDatabase()), mongoConverter));
+                reactivePartitions.add(new ReactiveMongoTemplate(
+                        new SimpleReactiveMongoDatabaseFactory(reactiveClient, connectionString.getDatabase()),
+                        mongoConverter));
+                names.add(connectionString.getHosts() + "/" + connectionString.getDatabase());
+            } else {
+                partitions.add(new MongoTemplate(
+                        new SimpleMongoClientDatabaseFactory(mongoClient, database), mongoConverter));
+                reactivePartitions.add(new ReactiveMongoTemplate(
+                        new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, database), mongoConverter));
+                names.add(database);
+            }
+        }
+        return new UserPartitions(partitions, reactivePartitions, names, config.getPreviousCount(), clients);
+    }
+}
@@ -0,0 +1,60 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class ReadSplittingConfig
+    @version 1.0.0
+    @since 19.10.2026 - 19.10
+*/
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import edu.chorn.myproject.util.UserReadRouting;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// users.reads.secondary-enabled sends the reads of UserService to secondaries; without it the
+// routing keeps every read on the primary and no operation times are handed out
+@Configuration
+public class ReadSplittingConfig implements WebMvcConfigurer {
+
+    private final UserProperties userProperties;
+
+    public ReadSplittingConfig(UserProperties userProperties) {
+        this.userProperties = userProperties;
+    }
+
+    @Bean
+    public UserReadRouting userReadRouting(MongoTemplate mongoTemplate, MongoClient mongoClient) {
+        UserProperties.Reads config = userProperties.getReads();
+        if (!config.isSecondaryEnabled()) {
+            return UserReadRouting.primary(mongoTemplate);
+        }
+        UserProperties.Reads.MaxStaleness maxStaleness = config.getMaxStaleness();
+        Map<UserReadRouting.Path, ReadPreference> preferences = new EnumMap<>(UserReadRouting.Path.class);
+        preferences.put(UserReadRouting.Path.LIST,
+                UserReadRouting.preference(config.getPreference(), maxStaleness.getList()));
+        preferences.put(UserReadRouting.Path.BY_ID,
+                UserReadRouting.preference(config.getPreference(), maxStaleness.getById()));
+        preferences.put(UserReadRouting.Path.SEARCH,
+                UserReadRouting.preference(config.getPreference(), maxStaleness.getSearch()));
+        return new UserReadRouting(mongoTemplate, mongoClient, preferences, config.isCausal());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        UserProperties.Reads config = userProperties.getReads();
+        if (config.isSecondaryEnabled() && config.isCausal()) {
+            registry.addInterceptor(new CausalReadInterceptor())
+                    .addPathPatterns("/api/v1/users/**")
+                    .excludePathPatterns("/api/v1/users/changes");
+        }
+    }
+}
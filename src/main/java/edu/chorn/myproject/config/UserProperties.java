@@ -0,0 +1,229 @@
+package edu.chorn.myproject.config;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserProperties
+    @version 1.0.0
+    @since 18.10.2026 - 10.15
+*/
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "users")
+public class UserProperties {
+
+    private final Page page = new Page();
+    private final MultiGet multiGet = new MultiGet();
+    private final Bulk bulk = new Bulk();
+    private final Indexes indexes = new Indexes();
+    private final Seed seed = new Seed();
+    private final WriteBehind writeBehind = new WriteBehind();
+    private final InMemory inMemory = new InMemory();
+    private final MappedLog mappedLog = new MappedLog();
+    private final Changes changes = new Changes();
+    private final Lookup lookup = new Lookup();
+    private final Limiter limiter = new Limiter();
+    private final BloomFilter bloomFilter = new BloomFilter();
+    private final Partitions partitions = new Partitions();
+    private final Reads reads = new Reads();
+    private final Export export = new Export();
+
+    // getById misses: concurrent lookups of one id always share a single call,
+    // with a batch window set the ids missed within it are loaded by one $in query
+    @Data
+    public static class Lookup {
+
+        private Duration batchWindow;
+        private int batchMaxSize = 100;
+    }
+
+    // keyset pagination of api/v1/users/
+    @Data
+    public static class Page {
+
+        private int defaultSize = 100;
+        private int maxSize = 1000;
+
+        public int resolve(Integer requested) {
+            if (requested == null) {
+                return Math.min(defaultSize, maxSize);
+            }
+            return Math.max(1, Math.min(requested, maxSize));
+        }
+    }
+
+    // POST api/v1/users/_mget and GET api/v1/users/?ids=
+    @Data
+    public static class MultiGet {
+
+        private int maxIds = 1000;
+    }
+
+    // POST api/v1/users/_bulk
+    @Data
+    public static class Bulk {
+
+        private int batchSize = 1000;
+        private int maxReportedErrors = 1000;
+    }
+
+    // index provisioning from the @Indexed/@CompoundIndex/@TextIndexed annotations
+    @Data
+    public static class Indexes {
+
+        public enum Mode { BACKGROUND, BLOCKING, OFF }
+
+        private Mode mode = Mode.BACKGROUND;
+        private boolean failOnMissing = false;
+    }
+
+    // one-off, versioned seeding of the user collection
+    @Data
+    public static class Seed {
+
+        private boolean enabled = true;
+    }
+
+    // queued, coalesced POST/PUT writes flushed as bulk upserts
+    @Data
+    public static class WriteBehind {
+
+        // ACCEPTED acks once queued (202), FLUSHED once the batch is written (200)
+        public enum Durability { ACCEPTED, FLUSHED }
+
+        private boolean enabled = false;
+        private int capacity = 10000;
+        private int batchSize = 500;
+        private Duration flushInterval = Duration.ofMillis(50);
+        private Durability durability = Durability.ACCEPTED;
+        private Duration ackTimeout = Duration.ofSeconds(5);
+    }
+
+    // inmemory profile: in-process engine instead of the Mongo server
+    @Data
+    public static class InMemory {
+
+        // no file, no snapshots: the data lives as long as the process
+        private Path snapshotFile;
+        // null: snapshot on shutdown only
+        private Duration snapshotInterval;
+        // "collection.field" entries whose unanchored literal regexes (the ...Containing queries)
+        // read a trigram index instead of every document
+        private List<String> substringIndexes = List.of("user.description");
+    }
+
+    // mapped-log profile: in-process engine on append-only memory-mapped files
+    @Data
+    public static class MappedLog {
+
+        private Path directory = Path.of("data", "mapped-log");
+        // force every append to disk; without it a process crash loses nothing, a power cut may
+        private boolean sync = false;
+        private Duration compactionInterval = Duration.ofSeconds(30);
+        // share of superseded and deleted bytes that triggers the rewrite of a log
+        private double compactionGarbageRatio = 0.5;
+        // as users.in-memory.substring-indexes
+        private List<String> substringIndexes = List.of("user.description");
+    }
+
+    // change stream of the user collection: cache invalidation and api/v1/users/changes
+    @Data
+    public static class Changes {
+
+        // off by default, a standalone mongod has no change streams
+        private boolean enabled = false;
+        private Duration maxRetryBackoff = Duration.ofSeconds(30);
+    }
+
+    // adaptive concurrency limits of api/v1/users/, one for reads and one for writes
+    @Data
+    public static class Limiter {
+
+        // off by default, a limit that starts low sheds load a healthy server could take
+        private boolean enabled = false;
+        private final Limit read = new Limit();
+        private final Limit write = new Limit();
+
+        @Data
+        public static class Limit {
+
+            private int initial = 20;
+            private int min = 4;
+            private int max = 500;
+        }
+    }
+
+    // negative lookup guard of getById and existsByName
+    @Data
+    public static class BloomFilter {
+
+        private boolean enabled = false;
+        private double falsePositiveRate = 0.01;
+        // the filters are sized for the user count times this plus min-expected-users
+        private double growthFactor = 1.5;
+        private long minExpectedUsers = 10_000;
+        // also drops deleted users, a filter cannot forget on its own
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+    }
+
+    // hash partitioning of the user collection by id
+    @Data
+    public static class Partitions {
+
+        // partitions 1..n next to the default database: a database name on the same server
+        // or a mongodb:// connection string of another one; only ever append to the list
+        private List<String> databases = new ArrayList<>();
+        // partition count before the last ones were appended, set until the rebalance is done
+        private Integer previousCount;
+        // scatter-gather reads run on this many threads
+        private int scatterThreads = 16;
+    }
+
+    // read/write splitting: reads of UserService on secondaries, writes stay on the primary
+    @Data
+    public static class Reads {
+
+        // off: every read goes to the primary, as before
+        private boolean secondaryEnabled = false;
+        // secondaryPreferred | secondary | nearest
+        private String preference = "secondaryPreferred";
+        // read-your-writes: writes answer with X-Operation-Time, reads sent with it wait for that write
+        private boolean causal = true;
+        private final MaxStaleness maxStaleness = new MaxStaleness();
+
+        // how far a secondary may lag behind the primary per read path, null for no bound;
+        // MongoDB does not accept less than 90s
+        @Data
+        public static class MaxStaleness {
+
+            private Duration list = Duration.ofSeconds(120);
+            private Duration byId = Duration.ofSeconds(90);
+            private Duration search = Duration.ofMinutes(10);
+        }
+    }
+
+    // full exports to gzipped NDJSON files, api/v1/admin/user-exports/
+    @Data
+    public static class Export {
+
+        // one sub-directory per export
+        private Path directory = Path.of("exports");
+        // ranges scanned at the same time, over all running exports
+        private int threads = 4;
+        // users per _id range, the unit of parallelism and of resuming
+        private long rangeUsers = 50_000;
+        // exports cut off by a stop continue when the application starts again
+        private boolean resumeOnStart = true;
+        // renewed by the running instance every third of it; an export whose lease ran out
+        // belongs to an instance that is gone and may be resumed by another one
+        private Duration lease = Duration.ofSeconds(30);
+    }
+}
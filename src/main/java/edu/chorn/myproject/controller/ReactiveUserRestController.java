@@ -0,0 +1,63 @@
+package edu.chorn.myproject.controller;
+
+/*
+    @author chorn
+    @project myproject
+    @class ReactiveUserRestController
+    @version 1.0.0
+    @since 18.10.2026 - 16.40
+*/
+
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// side by side with UserRestController, switched on by users.reactive.enabled;
+// no servlet thread is held while Mongo works, streams are written with backpressure
+@RestController
+@RequestMapping("api/v1/reactive/users/")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "users.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserRestController {
+
+    private final UserService userService;
+
+
+    // read all, streamed
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<User> showAll() {
+        return userService.streamAllReactive();
+    }
+
+    // full-text search, streamed by relevance
+    @GetMapping(value = "search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<User> search(@RequestParam("q") String text) {
+        return userService.searchReactive(text);
+    }
+
+    // read one
+    @GetMapping("{id}")
+    public Mono<User> showOneById(@PathVariable String id) {
+        return userService.getByIdReactive(id);
+    }
+
+    @PostMapping
+    public Mono<User> insert(@RequestBody User user) {
+        return userService.createReactive(user);
+    }
+
+    @PutMapping
+    public Mono<User> edit(@RequestBody User user) {
+        return userService.updateReactive(user);
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<Void> delete(@PathVariable String id) {
+        return userService.delByIdReactive(id);
+    }
+}
@@ -0,0 +1,87 @@
+package edu.chorn.myproject.controller;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserExportRestController
+    @version 1.0.0
+    @since 19.10.2026 - 20.10
+*/
+
+import edu.chorn.myproject.dto.UserExportStatus;
+import edu.chorn.myproject.service.UserExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+// full exports of the users as gzipped NDJSON: start one, poll its status, download the file
+@RestController
+@RequestMapping("api/v1/admin/user-exports/")
+@RequiredArgsConstructor
+public class UserExportRestController {
+
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final UserExportService userExportService;
+
+
+    // newest first
+    @GetMapping
+    public List<UserExportStatus> showAll() {
+        return userExportService.statuses();
+    }
+
+    // queued behind a running export, if any
+    @PostMapping
+    public ResponseEntity<UserExportStatus> start() {
+        UserExportStatus status = userExportService.create();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/admin/user-exports/" + status.id()))
+                .body(status);
+    }
+
+    @GetMapping("{id}")
+    public ResponseEntity<UserExportStatus> status(@PathVariable String id) {
+        return ResponseEntity.of(userExportService.status(id));
+    }
+
+    // interrupted or failed exports continue with the ranges they have not finished
+    @PostMapping("{id}/_resume")
+    public ResponseEntity<UserExportStatus> resume(@PathVariable String id) {
+        Optional<UserExportStatus> status = userExportService.status(id);
+        if (status.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!userExportService.resume(id)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(status.get());
+        }
+        return ResponseEntity.accepted().body(userExportService.status(id).orElseThrow());
+    }
+
+    // 404 until the export is done; range requests are served, so a broken download can continue
+    @GetMapping("{id}/file")
+    public ResponseEntity<Resource> download(@PathVariable String id) {
+        Optional<Path> file = userExportService.file(id);
+        if (file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("users-" + id + ".ndjson.gz")
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(file.get()));
+    }
+}
@@ -0,0 +1,40 @@
+package edu.chorn.myproject.controller;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserPartitionRestController
+    @version 1.0.0
+    @since 19.10.2026 - 18.50
+*/
+
+import edu.chorn.myproject.dto.UserPartitionStatus;
+import edu.chorn.myproject.service.UserPartitionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// operations on the hash partitions of the user collection
+@RestController
+@RequestMapping("api/v1/admin/user-partitions/")
+@RequiredArgsConstructor
+public class UserPartitionRestController {
+
+    private final UserPartitionService userPartitionService;
+
+
+    // users per partition and the state of the rebalance
+    @GetMapping
+    public UserPartitionStatus status() {
+        return userPartitionService.status();
+    }
+
+    // after appending to users.partitions.databases (with users.partitions.previous-count set):
+    // moves the users into their new partitions while the API keeps serving them
+    @PostMapping("_rebalance")
+    public ResponseEntity<UserPartitionStatus> rebalance() {
+        HttpStatus status = userPartitionService.startRebalance() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(userPartitionService.status());
+    }
+}
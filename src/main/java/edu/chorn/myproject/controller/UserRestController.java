@@ -8,12 +8,47 @@ package edu.chorn.myproject.controller;
     @since 08.04.2025 - 18.09
 */
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.chorn.myproject.config.WebConfig;
+import edu.chorn.myproject.dto.BulkImportResult;
+import edu.chorn.myproject.dto.UserChange;
+import edu.chorn.myproject.dto.UserField;
+import edu.chorn.myproject.dto.UserMultiGet;
+import edu.chorn.myproject.dto.UserMultiGetResult;
+import edu.chorn.myproject.dto.UserPage;
+import edu.chorn.myproject.dto.UserPatch;
 import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.service.UserChangeService;
 import edu.chorn.myproject.service.UserService;
+import edu.chorn.myproject.service.UserWriteBehindService;
+import edu.chorn.myproject.util.InvalidRequestException;
+import edu.chorn.myproject.util.UserBulkReader;
+import edu.chorn.myproject.util.UserETags;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("api/v1/users/")
@@ -21,34 +56,205 @@ import java.util.List;
 public class UserRestController {
 
     private final UserService userService;
+    private final UserWriteBehindService userWriteBehindService;
+    private final UserChangeService userChangeService;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
 
 
     // CRUD   create read update delete
 
-    // read all
+    // read all, one keyset page at a time;
+    // the ETag and Last-Modified cover the whole collection, so a 304 costs no query at all
     @GetMapping
-    public List<User> showAll() {
-        return userService.getAll();
+    public UserPage showAll(@RequestParam(required = false) String cursor,
+                            @RequestParam(required = false) Integer limit,
+                            @RequestParam(required = false) Set<UserField> fields,
+                            WebRequest request) {
+        String eTag = userService.getListETag();
+        if (eTag != null && request.checkNotModified(eTag, userService.getListLastModified())) {
+            return null;
+        }
+        return userService.getPage(cursor, limit, fields);
     }
 
-    // read one
+    // read all as NDJSON, written straight from the Mongo cursor
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAll(@RequestParam(required = false) Set<UserField> fields) {
+        ObjectWriter writer = objectMapper.writerFor(User.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (Stream<User> users = userService.streamAll(fields);
+                 JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                Iterator<User> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+    }
+
+    // read all with the given code
+    @GetMapping(params = "code")
+    public List<User> showAllByCode(@RequestParam String code) {
+        return userService.getByCode(code);
+    }
+
+    // read many by id, in request order with explicit misses
+    @GetMapping(params = "ids")
+    public UserMultiGetResult showAllByIds(@RequestParam List<String> ids) {
+        return userService.getByIds(ids);
+    }
+
+    @PostMapping("_mget")
+    public UserMultiGetResult multiGet(@RequestBody UserMultiGet request) {
+        return userService.getByIds(request.ids() == null ? List.of() : request.ids());
+    }
+
+    // full-text search, ordered by relevance
+    @GetMapping("search")
+    public List<User> search(@RequestParam("q") String text,
+                             @RequestParam(defaultValue = "0") int page,
+                             @RequestParam(required = false) Integer size,
+                             @RequestParam(required = false) Set<UserField> fields) {
+        return userService.search(text, page, size, fields);
+    }
+
+    // inserts, updates and deletes as server-sent events; the event id is a resume token,
+    // a client that reconnects with it as Last-Event-ID misses nothing in between
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<UserChange>> changes(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return userChangeService.changes(lastEventId)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(change.resumeToken())
+                        .event(change.type().name().toLowerCase())
+                        .build());
+    }
+
+    // read one; the ETag is the version, If-None-Match with it gets a 304 without the body
     @GetMapping("{id}")
-    public User showOneById(@PathVariable String id) {
-        return userService.getById(id);
+    public ResponseEntity<User> showOneById(@PathVariable String id) {
+        User user = userService.getById(id);
+        return ResponseEntity.ok().eTag(UserETags.of(user)).body(user);
     }
 
     @PostMapping
-    public User insert(@RequestBody User user) {
-        return userService.create(user);
+    public ResponseEntity<User> insert(@RequestBody User user) {
+        if (userWriteBehindService.accepts(user)) {
+            User queued = userWriteBehindService.write(user);
+            return userWriteBehindService.isDurable() ? ResponseEntity.ok(queued) : ResponseEntity.accepted().body(queued);
+        }
+        User created = userService.create(user);
+        return ResponseEntity.ok().eTag(UserETags.of(created)).body(created);
+    }
+
+    // bulk insert from a JSON array, parsed item by item
+    @PostMapping(value = "_bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkImportResult bulkInsert(InputStream body) throws IOException {
+        try (UserBulkReader reader = UserBulkReader.jsonArray(objectMapper, body)) {
+            return userService.importUsers(reader);
+        }
     }
 
+    // bulk insert from a Smile array, parsed item by item like the JSON one
+    @PostMapping(value = "_bulk", consumes = WebConfig.APPLICATION_SMILE_VALUE)
+    public BulkImportResult bulkInsertSmile(InputStream body) throws IOException {
+        try (UserBulkReader reader = UserBulkReader.jsonArray(smileConverter.getObjectMapper(), body)) {
+            return userService.importUsers(reader);
+        }
+    }
+
+    // bulk insert from a CBOR array
+    @PostMapping(value = "_bulk", consumes = MediaType.APPLICATION_CBOR_VALUE)
+    public BulkImportResult bulkInsertCbor(InputStream body) throws IOException {
+        try (UserBulkReader reader = UserBulkReader.jsonArray(cborConverter.getObjectMapper(), body)) {
+            return userService.importUsers(reader);
+        }
+    }
+
+    // bulk insert from NDJSON, one user per line
+    @PostMapping(value = "_bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BulkImportResult bulkInsertNdjson(InputStream body) throws IOException {
+        try (UserBulkReader reader = UserBulkReader.ndjson(objectMapper, body)) {
+            return userService.importUsers(reader);
+        }
+    }
+
+    // If-Match: "<version>" updates that version only, * any stored version; 412 otherwise
     @PutMapping
-    public User edit(@RequestBody User user) {
-        return userService.update(user);
+    public ResponseEntity<User> edit(@RequestBody User user,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            // never queued, the precondition is checked against the stored user
+            boolean any = UserETags.ANY.equals(ifMatch.trim());
+            Long version = any ? null : UserETags.versionOf(ifMatch);
+            if (user.getId() == null || !any && version == null || any && userService.getById(user.getId()) == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            user.setVersion(version);
+            try {
+                User updated = userService.update(user);
+                return ResponseEntity.ok().eTag(UserETags.of(updated)).body(updated);
+            } catch (OptimisticLockingFailureException e) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        if (userWriteBehindService.accepts(user)) {
+            User queued = userWriteBehindService.write(user);
+            return userWriteBehindService.isDurable() ? ResponseEntity.ok(queued) : ResponseEntity.accepted().body(queued);
+        }
+        User updated = userService.update(user);
+        return ResponseEntity.ok().eTag(UserETags.of(updated)).body(updated);
+    }
+
+    // partial update, only the given fields are written
+    @PatchMapping("{id}")
+    public ResponseEntity<User> patch(@PathVariable String id, @RequestBody UserPatch patch) {
+        User patched = userService.patch(id, patch);
+        return patched == null
+                ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok().eTag(UserETags.of(patched)).body(patched);
+    }
+
+    // stale version on PUT or PATCH
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> conflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    // too many ids in one multi-get, a resume token of another partitioning
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ProblemDetail> badRequest(InvalidRequestException e) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    // write-behind queue is full, a flush takes well under a second
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ProblemDetail> tooManyRequests(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage()));
     }
 
+    // If-Match: "<version>" deletes that version only, * any stored version; 412 otherwise
     @DeleteMapping("{id}")
-    public void delete(@PathVariable String id) {
-        userService.delById(id);
+    public ResponseEntity<Void> delete(@PathVariable String id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            userService.delById(id);
+            return ResponseEntity.ok().build();
+        }
+        boolean any = UserETags.ANY.equals(ifMatch.trim());
+        Long version = any ? null : UserETags.versionOf(ifMatch);
+        if (!any && version == null || !userService.delById(id, version)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class BulkImportResult
+    @version 1.0.0
+    @since 18.10.2026 - 12.25
+*/
+
+import java.util.List;
+
+// errors hold at most users.bulk.max-reported-errors entries, failed is the full count
+public record BulkImportResult(long received, long inserted, long failed, List<ItemError> errors) {
+
+    public record ItemError(int index, String message) {
+    }
+}
@@ -0,0 +1,20 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserChange
+    @version 1.0.0
+    @since 19.10.2026 - 09.10
+*/
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import edu.chorn.myproject.model.User;
+
+// one change of the user collection; user is the document after the change (null on delete),
+// id is null when the change is not about a single user (drop, rename, invalidate)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserChange(Type type, String id, User user, String resumeToken) {
+
+    public enum Type { INSERT, UPDATE, REPLACE, DELETE, INVALIDATE }
+}
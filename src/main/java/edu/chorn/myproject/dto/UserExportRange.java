@@ -0,0 +1,27 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserExportRange
+    @version 1.0.0
+    @since 19.10.2026 - 19.32
+*/
+
+// _id range [from, to) of one partition, null bounds are open; otherIds is the one range of
+// ids that are not ObjectIds, which do not compare with the ObjectId bounds
+public record UserExportRange(int partition, String from, String to, boolean otherIds,
+                              boolean done, long users, long bytes) {
+
+    public static UserExportRange of(int partition, String from, String to) {
+        return new UserExportRange(partition, from, to, false, false, 0, 0);
+    }
+
+    public static UserExportRange otherIds(int partition) {
+        return new UserExportRange(partition, null, null, true, false, 0, 0);
+    }
+
+    public UserExportRange done(long users, long bytes) {
+        return new UserExportRange(partition, from, to, otherIds, true, users, bytes);
+    }
+}
@@ -0,0 +1,14 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserExportState
+    @version 1.0.0
+    @since 19.10.2026 - 19.30
+*/
+
+// INTERRUPTED exports were cut off by a stop and can be resumed, FAILED ones as well
+public enum UserExportState {
+    QUEUED, RUNNING, INTERRUPTED, FAILED, DONE
+}
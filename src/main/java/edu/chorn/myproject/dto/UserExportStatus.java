@@ -0,0 +1,21 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserExportStatus
+    @version 1.0.0
+    @since 19.10.2026 - 19.35
+*/
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+// users and bytes count the finished ranges, bytes are gzipped; the rates are over the time
+// the export was actually running, resumes included
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserExportStatus(String id, UserExportState state, int ranges, int rangesDone, long users,
+                               long bytes, Instant createdAt, Instant finishedAt, double seconds,
+                               double usersPerSecond, double megabytesPerSecond, String error) {
+}
@@ -0,0 +1,37 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserField
+    @version 1.0.0
+    @since 18.10.2026 - 19.05
+*/
+
+// fields a client may ask for with ?fields=, id is always returned because it is the cursor
+public enum UserField {
+
+    ID("id"),
+    NAME("name"),
+    CODE("code"),
+    DESCRIPTION("description");
+
+    private final String property;
+
+    UserField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static UserField fromProperty(String property) {
+        for (UserField field : values()) {
+            if (field.property.equalsIgnoreCase(property.trim())) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown user field: " + property);
+    }
+}
@@ -0,0 +1,15 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserMultiGet
+    @version 1.0.0
+    @since 19.10.2026 - 09.10
+*/
+
+import java.util.List;
+
+// body of POST api/v1/users/_mget
+public record UserMultiGet(List<String> ids) {
+}
@@ -0,0 +1,22 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserMultiGetResult
+    @version 1.0.0
+    @since 19.10.2026 - 09.15
+*/
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import edu.chorn.myproject.model.User;
+
+import java.util.List;
+
+// one item per requested id, in request order; a miss has found = false and no user
+public record UserMultiGetResult(List<Item> items, int found, int missing) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(String id, boolean found, User user) {
+    }
+}
@@ -0,0 +1,17 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserPage
+    @version 1.0.0
+    @since 18.10.2026 - 10.20
+*/
+
+import edu.chorn.myproject.model.User;
+
+import java.util.List;
+
+// one keyset page; nextCursor is the last id of the page or null on the last page
+public record UserPage(List<User> items, String nextCursor) {
+}
@@ -0,0 +1,23 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserPartitionStatus
+    @version 1.0.0
+    @since 19.10.2026 - 18.40
+*/
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// previousCount is set while partitions were added and the move is not done;
+// running is true while this instance moves users, moved counts the users it moved
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserPartitionStatus(List<Partition> partitions, Integer previousCount, boolean rebalancing,
+                                  boolean running, long moved) {
+
+    public record Partition(int index, String database, long users) {
+    }
+}
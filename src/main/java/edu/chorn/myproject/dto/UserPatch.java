@@ -0,0 +1,17 @@
+package edu.chorn.myproject.dto;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserPatch
+    @version 1.0.0
+    @since 18.10.2026 - 20.10
+*/
+
+// PATCH body: null fields stay as they are; version, when given, must match the stored one
+public record UserPatch(String name, String code, String description, Long version) {
+
+    public boolean isEmpty() {
+        return name == null && code == null && description == null;
+    }
+}
@@ -0,0 +1,70 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class HashIndex
+    @version 1.0.0
+    @since 20.10.2026 - 18.20
+*/
+
+import de.bwaldvogel.mongo.backend.IndexKey;
+import de.bwaldvogel.mongo.backend.Utils;
+import de.bwaldvogel.mongo.bson.Document;
+import de.bwaldvogel.mongo.bson.ObjectId;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// the engines' index for @Indexed and @CompoundIndex: positions by the value of the leading key,
+// so an equality on it (findByCode, existsByName, a code_name lookup) reads its matches only
+public class HashIndex extends SecondaryIndex {
+
+    private final String leadingKey;
+
+    public HashIndex(String name, List<IndexKey> keys, boolean sparse) {
+        super(name, keys, sparse);
+        this.leadingKey = keys.get(0).getKey();
+    }
+
+    // every index but a text index, whose _fts keys only $text reads
+    public static boolean supports(List<IndexKey> keys) {
+        return keys.stream().noneMatch(key -> key.getKey().startsWith("_fts"));
+    }
+
+    @Override
+    protected Set<Object> keysOf(Document document) {
+        Object value = Utils.getSubdocumentValue(document, leadingKey);
+        Set<Object> keys = new HashSet<>();
+        if (value instanceof Collection<?> values) {
+            // an array is found under each of its elements
+            values.stream().filter(HashIndex::isKey).map(HashIndex::normalize).forEach(keys::add);
+        } else if (isKey(value)) {
+            keys.add(normalize(value));
+        }
+        return keys;
+    }
+
+    // a plain equality on the leading key; operators, regexes and null stay with the scan
+    @Override
+    public boolean canHandle(Document query) {
+        return isKey(query.get(leadingKey));
+    }
+
+    @Override
+    public Iterable<Integer> getPositions(Document query) {
+        return snapshot(positionsOf(normalize(query.get(leadingKey))));
+    }
+
+    private static boolean isKey(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof ObjectId
+                || value instanceof Boolean;
+    }
+
+    // 1 and 1.0 are one key, as they are equal to Mongo
+    private static Object normalize(Object value) {
+        return value instanceof Number number ? Utils.normalizeNumber(number) : value;
+    }
+}
@@ -0,0 +1,30 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class IndexedMemoryBackend
+    @version 1.0.0
+    @since 20.10.2026 - 18.45
+*/
+
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.bwaldvogel.mongo.backend.memory.MemoryDatabase;
+
+import java.util.List;
+
+// MemoryBackend whose databases keep secondary indexes, see IndexedMemoryDatabase
+public class IndexedMemoryBackend extends MemoryBackend {
+
+    private final List<String> substringIndexes;
+
+    // substringIndexes: "collection.field" entries
+    public IndexedMemoryBackend(List<String> substringIndexes) {
+        this.substringIndexes = List.copyOf(substringIndexes);
+    }
+
+    @Override
+    public MemoryDatabase openOrCreateDatabase(String databaseName) {
+        return new IndexedMemoryDatabase(databaseName, getCursorRegistry(), substringIndexes);
+    }
+}
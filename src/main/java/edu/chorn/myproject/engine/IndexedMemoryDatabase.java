@@ -0,0 +1,56 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class IndexedMemoryDatabase
+    @version 1.0.0
+    @since 20.10.2026 - 18.40
+*/
+
+import de.bwaldvogel.mongo.backend.CollectionOptions;
+import de.bwaldvogel.mongo.backend.CursorRegistry;
+import de.bwaldvogel.mongo.backend.Index;
+import de.bwaldvogel.mongo.backend.IndexKey;
+import de.bwaldvogel.mongo.backend.memory.MemoryCollection;
+import de.bwaldvogel.mongo.backend.memory.MemoryDatabase;
+import de.bwaldvogel.mongo.oplog.Oplog;
+
+import java.util.List;
+
+// MemoryDatabase with HashIndex for every non-unique index and the configured substring indexes;
+// a text index still gets the engine's empty stand-in, so there is no $text
+public class IndexedMemoryDatabase extends MemoryDatabase {
+
+    private final List<String> substringIndexes;
+
+    public IndexedMemoryDatabase(String databaseName, CursorRegistry cursorRegistry, List<String> substringIndexes) {
+        super(databaseName, cursorRegistry);
+        this.substringIndexes = List.copyOf(substringIndexes);
+    }
+
+    @Override
+    protected MemoryCollection openOrCreateCollection(String collectionName, CollectionOptions options) {
+        MemoryCollection collection = super.openOrCreateCollection(collectionName, options);
+        // null while the super constructor opens the namespaces collection
+        if (substringIndexes != null) {
+            SubstringIndex.of(collectionName, substringIndexes).forEach(collection::addIndex);
+        }
+        return collection;
+    }
+
+    @Override
+    public void dropCollection(String collectionName, Oplog oplog) {
+        SubstringIndex.dropFrom(resolveCollection(collectionName, true));
+        super.dropCollection(collectionName, oplog);
+    }
+
+    @Override
+    protected Index<Integer> openOrCreateSecondaryIndex(String collectionName, String indexName, List<IndexKey> keys,
+                                                        boolean sparse) {
+        if (!HashIndex.supports(keys)) {
+            return super.openOrCreateSecondaryIndex(collectionName, indexName, keys, sparse);
+        }
+        return new HashIndex(indexName, keys, sparse);
+    }
+}
@@ -0,0 +1,100 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class MappedLogBackend
+    @version 1.0.0
+    @since 18.10.2026 - 23.45
+*/
+
+import de.bwaldvogel.mongo.MongoDatabase;
+import de.bwaldvogel.mongo.backend.AbstractMongoBackend;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// mongo-java-server backend on MappedRecordLog files: every database found under the
+// directory is replayed on start, compaction runs in the background
+@Slf4j
+public class MappedLogBackend extends AbstractMongoBackend {
+
+    private final Path directory;
+    private final boolean sync;
+    private final double minGarbageRatio;
+    private final List<String> substringIndexes;
+    private final Map<String, MappedLogDatabase> databases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService compaction;
+
+    // substringIndexes: "collection.field" entries, see SubstringIndex
+    public MappedLogBackend(Path directory, boolean sync, Duration compactionInterval, double minGarbageRatio,
+                            List<String> substringIndexes) {
+        this.directory = directory;
+        this.sync = sync;
+        this.minGarbageRatio = minGarbageRatio;
+        this.substringIndexes = List.copyOf(substringIndexes);
+        try {
+            Files.createDirectories(directory);
+            try (var databaseDirectories = Files.list(directory)) {
+                for (Path databaseDirectory : databaseDirectories.filter(Files::isDirectory).toList()) {
+                    resolveDatabase(databaseDirectory.getFileName().toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open " + directory, e);
+        }
+
+        compaction = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mapped-log-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compaction.scheduleWithFixedDelay(this::compact, compactionInterval.toMillis(),
+                compactionInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected MongoDatabase openOrCreateDatabase(String databaseName) {
+        return databases.computeIfAbsent(databaseName, name ->
+                new MappedLogDatabase(name, directory.resolve(name), sync, substringIndexes, getCursorRegistry()));
+    }
+
+    @Override
+    public void dropDatabase(String databaseName) {
+        super.dropDatabase(databaseName);
+        databases.remove(databaseName);
+    }
+
+    public void compact() {
+        for (MappedLogDatabase database : databases.values()) {
+            for (MappedLogCollection collection : database.collections()) {
+                try {
+                    if (collection.compactIfNeeded(minGarbageRatio)) {
+                        log.debug("Compacted {}", collection.getFullName());
+                    }
+                } catch (RuntimeException e) {
+                    // the old file stays in place, the next run tries again
+                    log.error("Compaction of {} failed", collection.getFullName(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        compaction.shutdownNow();
+        super.close();
+        databases.values().forEach(MappedLogDatabase::close);
+        databases.clear();
+    }
+}
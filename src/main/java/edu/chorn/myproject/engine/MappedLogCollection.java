@@ -0,0 +1,130 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class MappedLogCollection
+    @version 1.0.0
+    @since 18.10.2026 - 23.25
+*/
+
+import de.bwaldvogel.mongo.MongoDatabase;
+import de.bwaldvogel.mongo.backend.AbstractSynchronizedMongoCollection;
+import de.bwaldvogel.mongo.backend.CollectionOptions;
+import de.bwaldvogel.mongo.backend.CursorRegistry;
+import de.bwaldvogel.mongo.backend.DocumentWithPosition;
+import de.bwaldvogel.mongo.backend.QueryResult;
+import de.bwaldvogel.mongo.bson.Document;
+import de.bwaldvogel.mongo.wire.bson.BsonDecoder;
+import de.bwaldvogel.mongo.wire.bson.BsonEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// one collection = one MappedRecordLog, documents are stored as BSON and positions are log slots;
+// indexes stay in memory and are rebuilt from the log when the collection is opened
+public class MappedLogCollection extends AbstractSynchronizedMongoCollection<Integer> {
+
+    private final MappedRecordLog recordLog;
+    private final AtomicInteger dataSize;
+
+    public MappedLogCollection(MongoDatabase database, String collectionName, CollectionOptions options,
+                               CursorRegistry cursorRegistry, MappedRecordLog recordLog) {
+        super(database, collectionName, options, cursorRegistry);
+        this.recordLog = recordLog;
+        this.dataSize = new AtomicInteger((int) (recordLog.liveBytes() - (long) recordLog.size() * MappedRecordLog.HEADER));
+    }
+
+    @Override
+    protected Integer addDocumentInternal(Document document) {
+        int slot = recordLog.allocateSlot();
+        recordLog.put(slot, encode(document));
+        return slot;
+    }
+
+    @Override
+    protected Document getDocument(Integer slot) {
+        // decoded straight from the mapping, no copy of the record bytes
+        return BsonDecoder.decodeBson(Unpooled.wrappedBuffer(recordLog.read(slot)));
+    }
+
+    @Override
+    protected void handleUpdate(Integer slot, Document oldDocument, Document newDocument) {
+        recordLog.put(slot, encode(newDocument));
+    }
+
+    @Override
+    protected void removeDocument(Integer slot) {
+        recordLog.delete(slot);
+    }
+
+    @Override
+    protected QueryResult matchDocuments(Document query, Document orderBy, int numberToSkip, int numberToReturn,
+                                         int batchSize, Document fieldSelector) {
+        IntStream slots = recordLog.slots();
+        if (isNaturalDescending(orderBy)) {
+            int[] ascending = slots.toArray();
+            slots = IntStream.range(0, ascending.length).map(i -> ascending[ascending.length - 1 - i]);
+        }
+        Stream<Document> documents = slots.mapToObj(this::getDocument);
+        return matchDocumentsFromStream(documents, query, orderBy, numberToSkip, numberToReturn, batchSize,
+                fieldSelector);
+    }
+
+    @Override
+    protected Stream<DocumentWithPosition<Integer>> streamAllDocumentsWithPosition() {
+        return recordLog.slots().mapToObj(slot -> new DocumentWithPosition<>(getDocument(slot), slot));
+    }
+
+    @Override
+    public synchronized int count() {
+        return recordLog.size();
+    }
+
+    @Override
+    protected void updateDataSize(int sizeDelta) {
+        dataSize.addAndGet(sizeDelta);
+    }
+
+    @Override
+    protected int getDataSize() {
+        return dataSize.get();
+    }
+
+    @Override
+    public synchronized void drop() {
+        super.drop();
+        recordLog.deleteFile();
+    }
+
+    // runs under the collection lock, so no query sees the log mid-swap
+    public synchronized boolean compactIfNeeded(double minGarbageRatio) {
+        if (recordLog.garbageRatio() < minGarbageRatio) {
+            return false;
+        }
+        recordLog.compact();
+        return true;
+    }
+
+    public synchronized void moveLog(Path target) {
+        recordLog.renameTo(target);
+    }
+
+    public synchronized void close() {
+        recordLog.close();
+    }
+
+    public synchronized long fileSize() {
+        return recordLog.fileSize();
+    }
+
+    private static java.nio.ByteBuffer encode(Document document) {
+        ByteBuf buffer = Unpooled.buffer();
+        BsonEncoder.encodeDocument(document, buffer);
+        return buffer.nioBuffer();
+    }
+}
@@ -0,0 +1,123 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class MappedLogDatabase
+    @version 1.0.0
+    @since 18.10.2026 - 23.35
+*/
+
+import de.bwaldvogel.mongo.MongoCollection;
+import de.bwaldvogel.mongo.MongoDatabase;
+import de.bwaldvogel.mongo.backend.AbstractSynchronizedMongoDatabase;
+import de.bwaldvogel.mongo.backend.CollectionOptions;
+import de.bwaldvogel.mongo.backend.CursorRegistry;
+import de.bwaldvogel.mongo.backend.Index;
+import de.bwaldvogel.mongo.backend.IndexKey;
+import de.bwaldvogel.mongo.backend.memory.index.MemoryUniqueIndex;
+import de.bwaldvogel.mongo.oplog.Oplog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// one directory per database, one <collection>.log file per collection; secondary indexes as in
+// IndexedMemoryDatabase, rebuilt from the replayed records on start
+public class MappedLogDatabase extends AbstractSynchronizedMongoDatabase<Integer> {
+
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean sync;
+    private final List<String> substringIndexes;
+    private final Map<String, MappedLogCollection> collections = new ConcurrentHashMap<>();
+
+    public MappedLogDatabase(String databaseName, Path directory, boolean sync, List<String> substringIndexes,
+                             CursorRegistry cursorRegistry) {
+        super(databaseName, cursorRegistry);
+        this.directory = directory;
+        this.sync = sync;
+        this.substringIndexes = List.copyOf(substringIndexes);
+        initializeNamespacesAndIndexes();
+    }
+
+    @Override
+    protected MongoCollection<Integer> openOrCreateCollection(String collectionName, CollectionOptions options) {
+        return collections.computeIfAbsent(collectionName, name -> {
+            MappedLogCollection collection = new MappedLogCollection(this, name, options, cursorRegistry,
+                    MappedRecordLog.open(directory.resolve(name + SUFFIX), sync));
+            SubstringIndex.of(name, substringIndexes).forEach(collection::addIndex);
+            return collection;
+        });
+    }
+
+    @Override
+    protected Index<Integer> openOrCreateSecondaryIndex(String collectionName, String indexName, List<IndexKey> keys,
+                                                        boolean sparse) {
+        if (!HashIndex.supports(keys)) {
+            return super.openOrCreateSecondaryIndex(collectionName, indexName, keys, sparse);
+        }
+        return new HashIndex(indexName, keys, sparse);
+    }
+
+    @Override
+    protected Index<Integer> openOrCreateUniqueIndex(String collectionName, String indexName, List<IndexKey> keys,
+                                                     boolean sparse) {
+        return new MemoryUniqueIndex(indexName, keys, sparse);
+    }
+
+    @Override
+    public void dropCollection(String collectionName, Oplog oplog) {
+        SubstringIndex.dropFrom(resolveCollection(collectionName, true));
+        super.dropCollection(collectionName, oplog);
+        collections.remove(collectionName);
+    }
+
+    @Override
+    public void moveCollection(MongoDatabase oldDatabase, MongoCollection<?> collection, String newCollectionName) {
+        super.moveCollection(oldDatabase, collection, newCollectionName);
+        if (collection instanceof MappedLogCollection logCollection && oldDatabase instanceof MappedLogDatabase old) {
+            old.collections.remove(collection.getCollectionName());
+            logCollection.moveLog(directory.resolve(newCollectionName + SUFFIX));
+            collections.put(newCollectionName, logCollection);
+        }
+    }
+
+    @Override
+    public void drop(Oplog oplog) {
+        super.drop(oplog);
+        close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete " + directory, e);
+        }
+    }
+
+    Iterable<MappedLogCollection> collections() {
+        return collections.values();
+    }
+
+    void close() {
+        collections.values().forEach(MappedLogCollection::close);
+        collections.clear();
+    }
+
+    @Override
+    protected long getStorageSize() {
+        return collections.values().stream().mapToLong(MappedLogCollection::fileSize).sum();
+    }
+
+    @Override
+    protected long getFileSize() {
+        return getStorageSize();
+    }
+}
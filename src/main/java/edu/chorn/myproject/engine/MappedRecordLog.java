@@ -0,0 +1,341 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class MappedRecordLog
+    @version 1.0.0
+    @since 18.10.2026 - 23.10
+*/
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+// append-only file of records, mapped into memory; a record is
+//   int payload length | int crc32c(slot, type, payload) | int slot | byte type | payload
+// slots are stable record ids, an off-heap table maps every slot to the offset of its
+// latest record, so an update or delete only ever appends and never rewrites in place
+@Slf4j
+public class MappedRecordLog implements Closeable {
+
+    static final int HEADER = 13;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int FREE = -1;
+    private static final int INITIAL_MAPPING = 1 << 20;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private Path file;
+    private final boolean sync;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private int end;
+
+    // slot -> offset, direct memory, FREE for unused slots
+    private ByteBuffer offsets = allocateOffsets(INITIAL_SLOTS);
+    private int slotCount;
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int live;
+    private long liveBytes;
+    private long deadBytes;
+
+    private MappedRecordLog(Path file, boolean sync) {
+        this.file = file;
+        this.sync = sync;
+    }
+
+    // replays the file; a torn or corrupt tail (crash during an append) is cut off
+    public static MappedRecordLog open(Path file, boolean sync) {
+        MappedRecordLog recordLog = new MappedRecordLog(file, sync);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            recordLog.map(Math.max(INITIAL_MAPPING, Files.exists(file) ? Files.size(file) : 0));
+            recordLog.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open " + file, e);
+        }
+        return recordLog;
+    }
+
+    public synchronized int allocateSlot() {
+        Integer free = freeSlots.poll();
+        if (free != null) {
+            return free;
+        }
+        if (slotCount == offsets.capacity() / Integer.BYTES) {
+            ByteBuffer grown = allocateOffsets(slotCount * 2);
+            grown.put(offsets.clear());
+            offsets = grown;
+        }
+        offsets.putInt(slotCount * Integer.BYTES, FREE);
+        return slotCount++;
+    }
+
+    public synchronized void put(int slot, ByteBuffer payload) {
+        int previous = offset(slot);
+        int offset = append(slot, PUT, payload);
+        if (previous == FREE) {
+            live++;
+        } else {
+            retire(previous);
+        }
+        liveBytes += recordSize(offset);
+        offsets.putInt(slot * Integer.BYTES, offset);
+    }
+
+    public synchronized void delete(int slot) {
+        int previous = offset(slot);
+        if (previous == FREE) {
+            return;
+        }
+        int tombstone = append(slot, DELETE, ByteBuffer.allocate(0));
+        retire(previous);
+        deadBytes += recordSize(tombstone);
+        live--;
+        offsets.putInt(slot * Integer.BYTES, FREE);
+        freeSlots.add(slot);
+    }
+
+    // read-only view straight into the mapping, valid until the next append or compaction
+    public synchronized ByteBuffer read(int slot) {
+        int offset = offset(slot);
+        if (offset == FREE) {
+            return null;
+        }
+        int length = mapped.getInt(offset);
+        return mapped.slice(offset + HEADER, length).asReadOnlyBuffer();
+    }
+
+    public synchronized IntStream slots() {
+        int[] used = IntStream.range(0, slotCount).filter(slot -> offset(slot) != FREE).toArray();
+        return IntStream.of(used);
+    }
+
+    public synchronized int size() {
+        return live;
+    }
+
+    public synchronized long liveBytes() {
+        return liveBytes;
+    }
+
+    public synchronized long fileSize() {
+        return end;
+    }
+
+    public synchronized double garbageRatio() {
+        long total = liveBytes + deadBytes;
+        return total == 0 ? 0 : (double) deadBytes / total;
+    }
+
+    // rewrites the live records into a fresh file and swaps it in atomically;
+    // slots keep their numbers, tombstones and superseded records are dropped
+    public synchronized void compact() {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        int[] newOffsets = new int[slotCount];
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int position = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                int offset = offset(slot);
+                newOffsets[slot] = FREE;
+                if (offset == FREE) {
+                    continue;
+                }
+                int size = recordSize(offset);
+                ByteBuffer record = mapped.slice(offset, size);
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+                newOffsets[slot] = position;
+                position += size;
+            }
+            out.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact " + file, e);
+        }
+
+        long before = end;
+        try {
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map(Math.max(INITIAL_MAPPING, Files.size(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reopen " + file + " after compaction", e);
+        }
+        end = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            offsets.putInt(slot * Integer.BYTES, newOffsets[slot]);
+            if (newOffsets[slot] != FREE) {
+                end = Math.max(end, newOffsets[slot] + recordSize(newOffsets[slot]));
+            }
+        }
+        deadBytes = 0;
+        log.debug("Compacted {} from {} to {} bytes", file, before, end);
+    }
+
+    public synchronized void renameTo(Path target) {
+        try {
+            channel.close();
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            file = target;
+            map(Math.max(INITIAL_MAPPING, Files.size(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot move " + file + " to " + target, e);
+        }
+    }
+
+    public synchronized void deleteFile() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        mapped.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close " + file, e);
+        }
+    }
+
+    private void recover() {
+        int position = 0;
+        while (position + HEADER <= mapped.capacity()) {
+            int length = mapped.getInt(position);
+            if (length <= 0 && mapped.get(position + 12) == 0) {
+                break;
+            }
+            if (length < 0 || position + HEADER + length > mapped.capacity() || !checksumMatches(position, length)) {
+                log.warn("Cut off a torn record at offset {} of {}", position, file);
+                for (int i = position; i < Math.min(mapped.capacity(), position + HEADER + Math.max(length, 0)); i++) {
+                    mapped.put(i, (byte) 0);
+                }
+                break;
+            }
+            int slot = mapped.getInt(position + 8);
+            while (slot >= slotCount) {
+                allocateSlot();
+            }
+            if (mapped.get(position + 12) == PUT) {
+                put(slot, position);
+            } else {
+                int previous = offset(slot);
+                if (previous != FREE) {
+                    retire(previous);
+                    live--;
+                    offsets.putInt(slot * Integer.BYTES, FREE);
+                }
+                deadBytes += HEADER;
+            }
+            position += HEADER + length;
+        }
+        end = position;
+        freeSlots.clear();
+        IntStream.range(0, slotCount).filter(slot -> offset(slot) == FREE).forEach(freeSlots::add);
+    }
+
+    // replay of a PUT that is already in the file
+    private void put(int slot, int offset) {
+        int previous = offset(slot);
+        if (previous == FREE) {
+            live++;
+        } else {
+            retire(previous);
+        }
+        liveBytes += recordSize(offset);
+        offsets.putInt(slot * Integer.BYTES, offset);
+    }
+
+    private int append(int slot, byte type, ByteBuffer payload) {
+        int length = payload.remaining();
+        ensureCapacity(HEADER + length);
+        int offset = end;
+        mapped.putInt(offset + 8, slot);
+        mapped.put(offset + 12, type);
+        mapped.put(offset + HEADER, payload, payload.position(), length);
+        mapped.putInt(offset + 4, checksum(offset, length));
+        // the length goes last: a crash before this point leaves no record at all
+        mapped.putInt(offset, length);
+        end += HEADER + length;
+        if (sync) {
+            mapped.force(offset, HEADER + length);
+        }
+        return offset;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if ((long) end + bytes <= mapped.capacity()) {
+            return;
+        }
+        long capacity = mapped.capacity();
+        while (capacity < (long) end + bytes) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException(file + " is full, one mapping holds at most 2 GB");
+        }
+        try {
+            map(capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow " + file, e);
+        }
+    }
+
+    private void map(long capacity) throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void retire(int offset) {
+        int size = recordSize(offset);
+        liveBytes -= size;
+        deadBytes += size;
+    }
+
+    private int offset(int slot) {
+        return offsets.getInt(slot * Integer.BYTES);
+    }
+
+    private int recordSize(int offset) {
+        return HEADER + mapped.getInt(offset);
+    }
+
+    private boolean checksumMatches(int offset, int length) {
+        return mapped.getInt(offset + 4) == checksum(offset, length);
+    }
+
+    private int checksum(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(mapped.slice(offset + 8, 5 + length));
+        return (int) crc.getValue();
+    }
+
+    private static ByteBuffer allocateOffsets(int slots) {
+        return ByteBuffer.allocateDirect(slots * Integer.BYTES);
+    }
+}
@@ -0,0 +1,122 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class SecondaryIndex
+    @version 1.0.0
+    @since 20.10.2026 - 18.10
+*/
+
+import de.bwaldvogel.mongo.MongoCollection;
+import de.bwaldvogel.mongo.backend.Index;
+import de.bwaldvogel.mongo.backend.IndexKey;
+import de.bwaldvogel.mongo.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// non-unique index of the in-process engines: record positions by the keys a document is indexed
+// under. A lookup returns candidates, the collection still matches each of them against the query,
+// so an index only has to name every position that may match
+public abstract class SecondaryIndex extends Index<Integer> {
+
+    private final Map<Object, Set<Integer>> postings = new ConcurrentHashMap<>();
+    // what each position is indexed under, so updates and removes need not recompute it
+    private final Map<Integer, Set<Object>> keysAt = new ConcurrentHashMap<>();
+    private final Map<Object, Integer> positionsById = new ConcurrentHashMap<>();
+
+    protected SecondaryIndex(String name, List<IndexKey> keys, boolean sparse) {
+        super(name, keys, sparse);
+    }
+
+    // the keys one document is found under
+    protected abstract Set<Object> keysOf(Document document);
+
+    protected Set<Integer> positionsOf(Object key) {
+        return postings.getOrDefault(key, Set.of());
+    }
+
+    @Override
+    public Integer getPosition(Document document) {
+        return positionsById.get(document.get("_id"));
+    }
+
+    @Override
+    public void checkAdd(Document document, MongoCollection<Integer> collection) {
+        // nothing is unique
+    }
+
+    @Override
+    public void add(Document document, Integer position, MongoCollection<Integer> collection) {
+        positionsById.put(document.get("_id"), position);
+        Set<Object> keys = keysOf(document);
+        keysAt.put(position, keys);
+        for (Object key : keys) {
+            postings.compute(key, (k, positions) -> {
+                Set<Integer> indexed = positions == null ? ConcurrentHashMap.newKeySet() : positions;
+                indexed.add(position);
+                return indexed;
+            });
+        }
+    }
+
+    @Override
+    public Integer remove(Document document) {
+        Integer position = positionsById.remove(document.get("_id"));
+        if (position != null) {
+            unindex(position);
+        }
+        return position;
+    }
+
+    @Override
+    public void checkUpdate(Document oldDocument, Document newDocument, MongoCollection<Integer> collection) {
+        // nothing is unique
+    }
+
+    @Override
+    public void updateInPlace(Document oldDocument, Document newDocument, Integer position,
+                              MongoCollection<Integer> collection) {
+        positionsById.remove(oldDocument.get("_id"));
+        unindex(position);
+        add(newDocument, position, collection);
+    }
+
+    @Override
+    public long getCount() {
+        return positionsById.size();
+    }
+
+    @Override
+    public long getDataSize() {
+        return postings.size();
+    }
+
+    @Override
+    public void drop() {
+        postings.clear();
+        keysAt.clear();
+        positionsById.clear();
+    }
+
+    protected static List<Integer> snapshot(Set<Integer> positions) {
+        return new ArrayList<>(positions);
+    }
+
+    private void unindex(Integer position) {
+        Set<Object> keys = keysAt.remove(position);
+        if (keys == null) {
+            return;
+        }
+        for (Object key : keys) {
+            postings.computeIfPresent(key, (k, positions) -> {
+                positions.remove(position);
+                return positions.isEmpty() ? null : positions;
+            });
+        }
+    }
+}
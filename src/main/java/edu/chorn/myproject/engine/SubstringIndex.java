@@ -0,0 +1,127 @@
+package edu.chorn.myproject.engine;
+
+/*
+    @author chorn
+    @project myproject
+    @class SubstringIndex
+    @version 1.0.0
+    @since 20.10.2026 - 18.30
+*/
+
+import de.bwaldvogel.mongo.MongoCollection;
+import de.bwaldvogel.mongo.backend.AbstractMongoCollection;
+import de.bwaldvogel.mongo.backend.Index;
+import de.bwaldvogel.mongo.backend.IndexKey;
+import de.bwaldvogel.mongo.backend.Utils;
+import de.bwaldvogel.mongo.bson.BsonRegularExpression;
+import de.bwaldvogel.mongo.bson.Document;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// trigram index of one string field for regexes that only look for a literal, such as the
+// ".*\Qtext\E.*" of a derived ...Containing query: a match has every trigram of the literal,
+// so the positions under the rarest ones are the candidates
+public class SubstringIndex extends SecondaryIndex {
+
+    private static final int GRAM = 3;
+    // at most this many trigrams are intersected, the rarest first
+    private static final int MAX_GRAMS = 4;
+    private static final Pattern QUOTED = Pattern.compile("\\^?(?:\\.\\*)?\\\\Q(.*)\\\\E(?:\\.\\*)?\\$?", Pattern.DOTALL);
+    private static final Pattern PLAIN = Pattern.compile("\\^?(?:\\.\\*)?([^\\\\^$.|?*+()\\[\\]{}]*)(?:\\.\\*)?\\$?");
+
+    private final String field;
+
+    public SubstringIndex(String field) {
+        super(field + "_substring", List.of(new IndexKey(field, true)), false);
+        this.field = field;
+    }
+
+    @Override
+    protected Set<Object> keysOf(Document document) {
+        Object value = Utils.getSubdocumentValue(document, field);
+        Set<Object> grams = new HashSet<>();
+        if (value instanceof Collection<?> values) {
+            values.forEach(element -> addGrams(element, grams));
+        } else {
+            addGrams(value, grams);
+        }
+        return grams;
+    }
+
+    @Override
+    public boolean canHandle(Document query) {
+        String literal = literalOf(query.get(field));
+        return literal != null && literal.length() >= GRAM;
+    }
+
+    @Override
+    public Iterable<Integer> getPositions(Document query) {
+        String literal = literalOf(query.get(field));
+        Set<Object> grams = new HashSet<>();
+        addGrams(literal, grams);
+        List<Set<Integer>> postings = grams.stream()
+                .map(this::positionsOf)
+                .sorted(Comparator.comparingInt(Set::size))
+                .limit(MAX_GRAMS)
+                .toList();
+        Set<Integer> candidates = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(postings.get(i));
+        }
+        return snapshot(candidates);
+    }
+
+    // the indexes of one collection out of "collection.field" entries
+    public static List<SubstringIndex> of(String collectionName, List<String> fields) {
+        String prefix = collectionName + ".";
+        return fields.stream()
+                .filter(field -> field.startsWith(prefix))
+                .map(field -> new SubstringIndex(field.substring(prefix.length())))
+                .toList();
+    }
+
+    // they are not in system.indexes, so a drop of the collection does not drop them and then
+    // refuses to drop a collection that still has indexes
+    public static void dropFrom(MongoCollection<?> collection) {
+        if (collection instanceof AbstractMongoCollection<?> indexed) {
+            indexed.getIndexes().stream()
+                    .filter(SubstringIndex.class::isInstance)
+                    .map(Index::getName)
+                    .toList()
+                    .forEach(indexed::dropIndex);
+        }
+    }
+
+    // the literal a regex looks for, null when it is more than a literal or ignores case
+    static String literalOf(Object value) {
+        if (!BsonRegularExpression.isRegularExpression(value)) {
+            return null;
+        }
+        BsonRegularExpression regex = BsonRegularExpression.convertToRegularExpression(value);
+        String options = regex.getOptions() == null ? "" : regex.getOptions();
+        if (options.contains("i") || options.contains("x")) {
+            return null;
+        }
+        Matcher quoted = QUOTED.matcher(regex.getPattern());
+        if (quoted.matches() && !quoted.group(1).contains("\\E")) {
+            return quoted.group(1);
+        }
+        Matcher plain = PLAIN.matcher(regex.getPattern());
+        return plain.matches() ? plain.group(1) : null;
+    }
+
+    private static void addGrams(Object value, Set<Object> grams) {
+        if (!(value instanceof String text)) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package edu.chorn.myproject.model;
+
+/*
+    @author chorn
+    @project myproject
+    @class SeedVersion
+    @version 1.0.0
+    @since 18.10.2026 - 15.10
+*/
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// marks which version of a data seed has already been applied
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document("seed_versions")
+public class SeedVersion {
+
+    @Id
+    private String id;
+    private int version;
+    private Instant appliedAt;
+}
@@ -8,8 +8,13 @@ package edu.chorn.myproject.model;
     @since 08.04.2025 - 17.30
 */
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Objects;
@@ -22,13 +27,21 @@ import java.util.Objects;
 @Builder
 @ToString
 @Document
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@CompoundIndex(name = "code_name", def = "{'code': 1, 'name': 1}")
 public class User {
 
     @Id
     private String id;
+    @Indexed
+    @TextIndexed(weight = 2)
     private String name;
     private String code;
+    @TextIndexed
     private String description;
+    // optimistic locking, bumped by every write
+    @Version
+    private Long version;
 
     public User(String name, String code, String description) {
         this.name = name;
@@ -36,6 +49,11 @@ public class User {
         this.description = description;
     }
 
+    public User(String id, String name, String code, String description) {
+        this(name, code, description);
+        this.id = id;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof User user)) return false;
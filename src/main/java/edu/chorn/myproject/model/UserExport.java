@@ -0,0 +1,47 @@
+package edu.chorn.myproject.model;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserExport
+    @version 1.0.0
+    @since 19.10.2026 - 19.38
+*/
+
+import edu.chorn.myproject.dto.UserExportRange;
+import edu.chorn.myproject.dto.UserExportState;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// an export job and its ranges; a finished range is never scanned again, so a resumed export
+// only redoes the ranges that were in flight
+@Data
+@NoArgsConstructor
+@Document("user_exports")
+public class UserExport {
+
+    @Id
+    private String id;
+    private UserExportState state;
+    private List<UserExportRange> ranges = new ArrayList<>();
+    private Instant createdAt;
+    private Instant finishedAt;
+    // running time of earlier runs, the current one started at runningSince
+    private long elapsedMillis;
+    private Instant runningSince;
+    private String error;
+    // the instance running the export; it renews leaseUntil while it works on it, and another
+    // instance only takes the export over once the lease has run out
+    private String owner;
+    private Instant leaseUntil;
+    // every save is conditional, an owner that lost the export cannot overwrite the new one's state
+    @Version
+    private Long version;
+}
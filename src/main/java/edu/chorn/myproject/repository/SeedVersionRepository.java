@@ -0,0 +1,17 @@
+package edu.chorn.myproject.repository;
+
+/*
+    @author chorn
+    @project myproject
+    @class SeedVersionRepository
+    @version 1.0.0
+    @since 18.10.2026 - 15.12
+*/
+
+import edu.chorn.myproject.model.SeedVersion;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeedVersionRepository extends MongoRepository<SeedVersion, String> {
+}
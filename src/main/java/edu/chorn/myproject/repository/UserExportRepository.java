@@ -0,0 +1,25 @@
+package edu.chorn.myproject.repository;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserExportRepository
+    @version 1.0.0
+    @since 19.10.2026 - 19.40
+*/
+
+import edu.chorn.myproject.dto.UserExportState;
+import edu.chorn.myproject.model.UserExport;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserExportRepository extends MongoRepository<UserExport, String> {
+
+    List<UserExport> findByStateIn(Collection<UserExportState> states);
+
+    List<UserExport> findAllByOrderByCreatedAtDesc();
+}
@@ -9,17 +9,36 @@ package edu.chorn.myproject.repository;
 */
 
 import edu.chorn.myproject.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
 
     boolean existsByName(String name);
 
-    @Query("{'description': { $regex: ?0 }}")
+    List<User> findByCode(String code);
+
+    // derived query quotes the input, so it is a literal substring and not a user supplied regex;
+    // still a collection scan, indexed search goes through UserService.search
     List<User> findByDescriptionContaining(String descriptionSubstring);
+
+    // keyset pagination on _id
+    List<User> findAllByOrderByIdAsc(Limit limit);
+
+    // after an ObjectId cursor, the ObjectIds are the last ids in _id order
+    List<User> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // after a string cursor: the string ids still to come, then every ObjectId (see UserIds)
+    @Query(value = "{ '$or': [ { '_id': { '$gt': ?0 } }, { '_id': { '$type': 'objectId' } } ] }",
+            sort = "{ '_id': 1 }")
+    List<User> findAfterStringIdOrderByIdAsc(String id, Limit limit);
+
+    // backed by a Mongo cursor, must be closed by the caller
+    Stream<User> streamAllBy();
 }
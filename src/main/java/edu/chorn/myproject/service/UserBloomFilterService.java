@@ -0,0 +1,182 @@
+package edu.chorn.myproject.service;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserBloomFilterService
+    @version 1.0.0
+    @since 19.10.2026 - 15.40
+*/
+
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.dto.UserField;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.util.BloomFilter;
+import edu.chorn.myproject.util.UserBloomFilters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Bloom filters over the ids and names of all users: a definite miss is answered without Mongo.
+// Every write of this process adds to them (after the write), change stream events add the
+// writes of other processes; deletes are only dropped by the periodic rebuild.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserBloomFilterService {
+
+    private final UserRepository userRepository;
+    private final MongoOperations mongoOperations;
+    private final UserProperties userProperties;
+    private final MeterRegistry meterRegistry;
+    private final UserPartitionService userPartitionService;
+
+    // live and building filters swap together, writes go into both so the rebuild misses nothing
+    private volatile UserBloomFilters filters = UserBloomFilters.NONE;
+    private ScheduledExecutorService rebuilds;
+    private Counter idMisses;
+    private Counter nameMisses;
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    public void start() {
+        UserProperties.BloomFilter config = userProperties.getBloomFilter();
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (!userProperties.getChanges().isEnabled()) {
+            // writes of other instances and tools would read as 404 until the next rebuild
+            throw new IllegalStateException(
+                    "users.bloom-filter.enabled needs users.changes.enabled, the change stream feeds the filters");
+        }
+        idMisses = missCounter("id");
+        nameMisses = missCounter("name");
+        rebuildTimer = Timer.builder("users.bloom-filter.rebuild")
+                .description("Full rebuild of the user id and name filters")
+                .register(meterRegistry);
+
+        rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-bloom-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getRebuildInterval().toMillis();
+        rebuilds.scheduleWithFixedDelay(this::rebuildQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rebuilds != null) {
+            rebuilds.shutdownNow();
+        }
+    }
+
+    public boolean mightContainId(String id) {
+        BloomFilter filter = filters.ids();
+        if (filter == null || id == null || filter.mightContain(id)) {
+            return true;
+        }
+        idMisses.increment();
+        return false;
+    }
+
+    public boolean mightContainName(String name) {
+        BloomFilter filter = filters.names();
+        if (filter == null || name == null || filter.mightContain(name)) {
+            return true;
+        }
+        nameMisses.increment();
+        return false;
+    }
+
+    // UserRepository.existsByName behind the name filter, over every partition when partitioned
+    public boolean existsByName(String name) {
+        if (!mightContainName(name)) {
+            return false;
+        }
+        return userPartitionService.isPartitioned()
+                ? userPartitionService.existsByName(name)
+                : userRepository.existsByName(name);
+    }
+
+    // call after the user is written, never before
+    public void add(User user) {
+        if (user != null) {
+            add(user.getId(), user.getName());
+        }
+    }
+
+    public void add(String id, String name) {
+        filters.add(id, name);
+    }
+
+    // streams the ids and names of the collection into new filters and swaps them in
+    public synchronized void rebuild() {
+        UserProperties.BloomFilter config = userProperties.getBloomFilter();
+        long users = userPartitionService.isPartitioned()
+                ? userPartitionService.estimatedCount()
+                : mongoOperations.estimatedCount(User.class);
+        long expected = (long) (users * config.getGrowthFactor())
+                + config.getMinExpectedUsers();
+        BloomFilter nextIds = BloomFilter.create(expected, config.getFalsePositiveRate());
+        BloomFilter nextNames = BloomFilter.create(expected, config.getFalsePositiveRate());
+        filters = filters.building(nextIds, nextNames);
+        boolean built = false;
+        try {
+            Query query = new Query();
+            query.fields().include("id", "name");
+            long start = System.nanoTime();
+            LongAdder count = new LongAdder();
+            try (Stream<User> stream = userPartitionService.isPartitioned()
+                    ? userPartitionService.streamAll(Set.of(UserField.ID, UserField.NAME))
+                    : mongoOperations.stream(query, User.class)) {
+                stream.forEach(user -> {
+                    nextIds.add(user.getId());
+                    if (user.getName() != null) {
+                        nextNames.add(user.getName());
+                    }
+                    count.increment();
+                });
+            }
+            filters = filters.built();
+            built = true;
+            rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Rebuilt user bloom filters from {} users, {} bits each", count.sum(), nextIds.bitCount());
+        } finally {
+            if (!built) {
+                filters = filters.abandoned();
+            }
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // the old filters stay in place (or none, and every lookup goes to Mongo)
+            log.warn("Rebuild of the user bloom filters failed", e);
+        }
+    }
+
+    private Counter missCounter(String key) {
+        return Counter.builder("users.bloom-filter.misses")
+                .description("Lookups answered as not found without a Mongo query")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
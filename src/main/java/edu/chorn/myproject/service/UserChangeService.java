@@ -0,0 +1,213 @@
+package edu.chorn.myproject.service;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserChangeService
+    @version 1.0.0
+    @since 19.10.2026 - 09.20
+*/
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import edu.chorn.myproject.config.CacheConfig;
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.dto.UserChange;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.util.CollectionRevision;
+import edu.chorn.myproject.util.InvalidRequestException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+// tails the change stream of the user collection: evicts changed users from the local cache,
+// whoever wrote them, and feeds api/v1/users/changes; needs a replica set (or the inmemory engine);
+// partitioned, it tails every partition and a resume token holds one position per partition
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserChangeService {
+
+    private static final String TOKEN_FIELD = "_data";
+    private static final String POSITION_SEPARATOR = ",";
+    // a partition position that is an operation time ("@seconds") rather than a resume token
+    private static final String AT_TIME = "@";
+    private static final Set<OperationType> SINGLE_USER_CHANGES = EnumSet.of(
+            OperationType.INSERT, OperationType.UPDATE, OperationType.REPLACE, OperationType.DELETE);
+
+    private final UserRepository userRepository;
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final CacheManager cacheManager;
+    private final UserProperties userProperties;
+    private final CollectionRevision usersRevision;
+    private final UserBloomFilterService userBloomFilterService;
+    private final UserPartitionService userPartitionService;
+
+    // one change stream from "now" shared by every live subscriber
+    private Flux<UserChange> live;
+    private Disposable cacheInvalidation;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!userProperties.getChanges().isEnabled()) {
+            return;
+        }
+        // a broken stream is reopened after the last event it delivered, so no change is missed
+        AtomicReference<String> lastToken = new AtomicReference<>();
+        Duration maxBackoff = userProperties.getChanges().getMaxRetryBackoff();
+        cacheInvalidation = Flux.defer(() -> changes(lastToken.get()))
+                .doOnNext(change -> lastToken.set(change.resumeToken()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(100)).maxBackoff(maxBackoff)
+                        .doBeforeRetry(signal -> log.warn("User change stream failed, reopening", signal.failure())))
+                .subscribe(this::invalidate);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (cacheInvalidation != null) {
+            cacheInvalidation.dispose();
+        }
+    }
+
+    // null resumeToken: changes from now on, otherwise every change after that token
+    public Flux<UserChange> changes(String resumeToken) {
+        if (resumeToken == null || resumeToken.isBlank()) {
+            return liveChanges();
+        }
+        if (userPartitionService.isPartitioned()) {
+            return watchPartitions(resumeToken.split(POSITION_SEPARATOR, -1));
+        }
+        return watch(reactiveMongoOperations, resumeToken);
+    }
+
+    private synchronized Flux<UserChange> liveChanges() {
+        if (live == null) {
+            live = (userPartitionService.isPartitioned()
+                    ? watchPartitions(null)
+                    : watch(reactiveMongoOperations, null)).share();
+        }
+        return live;
+    }
+
+    // every partition from its position, or from now without positions; merge hands the changes on
+    // one at a time, so the positions in a token are those of all changes delivered before it, and
+    // a partition without a change yet resumes at the time its stream was opened
+    private Flux<UserChange> watchPartitions(String[] positions) {
+        List<ReactiveMongoOperations> partitions = userPartitionService.reactivePartitions();
+        if (positions != null && positions.length != partitions.size()) {
+            throw new InvalidRequestException("Resume token does not match the " + partitions.size()
+                    + " user partitions");
+        }
+        return Flux.defer(() -> {
+            String opened = AT_TIME + Instant.now().getEpochSecond();
+            String[] delivered = new String[partitions.size()];
+            List<Flux<Tuple2<Integer, UserChange>>> streams = new ArrayList<>();
+            for (int i = 0; i < partitions.size(); i++) {
+                int partition = i;
+                delivered[i] = positions == null ? opened : positions[i];
+                streams.add(watch(partitions.get(i), positions == null ? null : positions[i])
+                        .map(change -> Tuples.of(partition, change)));
+            }
+            return Flux.merge(streams).map(tagged -> {
+                UserChange change = tagged.getT2();
+                delivered[tagged.getT1()] = change.resumeToken();
+                return new UserChange(change.type(), change.id(), change.user(),
+                        String.join(POSITION_SEPARATOR, delivered));
+            });
+        });
+    }
+
+    private Flux<UserChange> watch(ReactiveMongoOperations partition, String position) {
+        return partition.changeStream(User.class)
+                .withOptions(options -> {
+                    options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+                    if (position != null && position.startsWith(AT_TIME)) {
+                        options.resumeAt(new BsonTimestamp(Integer.parseInt(position.substring(AT_TIME.length())), 0));
+                    } else if (position != null) {
+                        options.resumeAfter(new BsonDocument(TOKEN_FIELD, new BsonString(position)));
+                    }
+                })
+                .watchCollection(User.class)
+                .listen()
+                .concatMap(this::toChange);
+    }
+
+    private Mono<UserChange> toChange(ChangeStreamEvent<User> event) {
+        ChangeStreamDocument<Document> raw = event.getRaw();
+        String token = raw.getResumeToken().getString(TOKEN_FIELD).getValue();
+        String id = idOf(raw, event.getBody());
+        UserChange.Type type = typeOf(event.getOperationType());
+        if (id == null) {
+            return Mono.just(new UserChange(UserChange.Type.INVALIDATE, null, null, token));
+        }
+        if (type == UserChange.Type.DELETE || event.getBody() != null && event.getBody().getId() != null) {
+            return Mono.just(new UserChange(type, id, event.getBody(), token));
+        }
+        // no (complete) full document in the event: read the current state instead
+        return Mono.fromCallable(() -> userPartitionService.isPartitioned()
+                        ? userPartitionService.findById(id)
+                        : userRepository.findById(id).orElse(null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(user -> new UserChange(type, id, user, token))
+                .defaultIfEmpty(new UserChange(type, id, null, token));
+    }
+
+    // the revision moves first, a lookup that ran across the change then leaves the cache alone
+    private void invalidate(UserChange change) {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS);
+        if (change.id() == null) {
+            usersRevision.advance();
+            cache.clear();
+        } else {
+            usersRevision.advance(change.id());
+            cache.evict(change.id());
+        }
+        // writes of other processes, ours are in the filters already
+        userBloomFilterService.add(change.user());
+    }
+
+    private static String idOf(ChangeStreamDocument<Document> raw, User body) {
+        BsonDocument key = raw.getDocumentKey();
+        if (key != null && key.containsKey("_id")) {
+            BsonValue id = key.get("_id");
+            return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+        }
+        return body != null ? body.getId() : null;
+    }
+
+    private static UserChange.Type typeOf(OperationType operationType) {
+        if (operationType == null || !SINGLE_USER_CHANGES.contains(operationType)) {
+            return UserChange.Type.INVALIDATE;
+        }
+        return UserChange.Type.valueOf(operationType.name());
+    }
+}
@@ -0,0 +1,480 @@
+package edu.chorn.myproject.service;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserExportService
+    @version 1.0.0
+    @since 19.10.2026 - 19.45
+*/
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.dto.UserExportRange;
+import edu.chorn.myproject.dto.UserExportState;
+import edu.chorn.myproject.dto.UserExportStatus;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.model.UserExport;
+import edu.chorn.myproject.repository.UserExportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// full exports of the user collection as gzipped NDJSON, one file per export:
+// every partition is cut into _id ranges, the ranges are scanned in parallel on a bounded pool
+// into gzip parts, and the parts are concatenated (gzip members) once all of them are done;
+// an export is owned by the instance running it for as long as that instance renews its lease
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    static final String FILE_NAME = "users.ndjson.gz";
+
+    private final UserExportRepository userExportRepository;
+    private final UserPartitionService userPartitionService;
+    private final ObjectMapper objectMapper;
+    private final UserProperties userProperties;
+    private final MeterRegistry meterRegistry;
+
+    // exports of this process, by id
+    private final Map<String, UserExport> active = new ConcurrentHashMap<>();
+    private final String instance = ManagementFactory.getRuntimeMXBean().getName();
+    // one export at a time, its ranges share the scan pool
+    private ExecutorService jobs;
+    private ExecutorService scans;
+    private ScheduledExecutorService leases;
+    private Counter exportedUsers;
+    private Counter exportedBytes;
+    private Timer rangeTimer;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        jobs = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "user-export"));
+        scans = Executors.newFixedThreadPool(userProperties.getExport().getThreads(),
+                runnable -> daemon(runnable, "user-export-scan-" + threads.incrementAndGet()));
+        long renewMillis = Math.max(1, userProperties.getExport().getLease().toMillis() / 3);
+        leases = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "user-export-lease"));
+        leases.scheduleWithFixedDelay(this::renewLeases, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        exportedUsers = Counter.builder("users.export.users")
+                .description("Users written to export files")
+                .register(meterRegistry);
+        exportedBytes = Counter.builder("users.export.bytes")
+                .description("Gzipped bytes written to export files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        rangeTimer = Timer.builder("users.export.range")
+                .description("Scan of one _id range into its gzip part")
+                .register(meterRegistry);
+
+        // exports of a process that went away: those another live instance runs keep their lease
+        for (UserExport export : userExportRepository.findByStateIn(
+                List.of(UserExportState.QUEUED, UserExportState.RUNNING, UserExportState.INTERRUPTED))) {
+            if (!suspend(export)) {
+                continue;
+            }
+            if (userProperties.getExport().isResumeOnStart()) {
+                log.info("Resuming user export {}", export.getId());
+                submit(export);
+            }
+        }
+    }
+
+    // running exports stay INTERRUPTED and continue from their finished ranges; the jobs get up to
+    // a lease to record that before Mongo goes away, after it another instance may take them anyway
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (jobs != null) {
+            leases.shutdownNow();
+            jobs.shutdownNow();
+            scans.shutdownNow();
+            long deadline = System.nanoTime() + userProperties.getExport().getLease().toNanos();
+            for (ExecutorService executor : List.of(jobs, scans, leases)) {
+                if (!executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    log.warn("User exports did not stop within {}", userProperties.getExport().getLease());
+                    return;
+                }
+            }
+        }
+    }
+
+    public UserExportStatus create() {
+        UserExport export = new UserExport();
+        export.setId(new ObjectId().toHexString());
+        export.setState(UserExportState.QUEUED);
+        export.setCreatedAt(Instant.now());
+        export.setOwner(instance);
+        export.setLeaseUntil(leaseEnd());
+        userExportRepository.save(export);
+        submit(export);
+        return statusOf(export);
+    }
+
+    // false when the export is unknown, done, or running here or on another live instance
+    public synchronized boolean resume(String id) {
+        Optional<UserExport> found = userExportRepository.findById(id);
+        if (found.isEmpty() || active.containsKey(id) || found.get().getState() == UserExportState.DONE
+                || !suspend(found.get())) {
+            return false;
+        }
+        submit(found.get());
+        return true;
+    }
+
+    public Optional<UserExportStatus> status(String id) {
+        UserExport export = active.get(id);
+        if (export != null) {
+            return Optional.of(statusOf(export));
+        }
+        return userExportRepository.findById(id).map(this::statusOf);
+    }
+
+    public List<UserExportStatus> statuses() {
+        return userExportRepository.findAllByOrderByCreatedAtDesc().stream()
+                .map(export -> statusOf(active.getOrDefault(export.getId(), export)))
+                .toList();
+    }
+
+    // the gzipped NDJSON of a finished export
+    public Optional<Path> file(String id) {
+        return userExportRepository.findById(id)
+                .filter(export -> export.getState() == UserExportState.DONE)
+                .map(export -> directoryOf(id).resolve(FILE_NAME))
+                .filter(Files::exists);
+    }
+
+    private void submit(UserExport export) {
+        export.setState(UserExportState.QUEUED);
+        export.setError(null);
+        export.setLeaseUntil(leaseEnd());
+        userExportRepository.save(export);
+        active.put(export.getId(), export);
+        jobs.execute(() -> run(export));
+    }
+
+    // keeps the exports of this process; one whose lease was taken over is given up
+    private void renewLeases() {
+        for (UserExport export : active.values()) {
+            synchronized (export) {
+                try {
+                    export.setLeaseUntil(leaseEnd());
+                    userExportRepository.save(export);
+                } catch (OptimisticLockingFailureException e) {
+                    log.warn("User export {} was taken over by another instance", export.getId());
+                    active.remove(export.getId());
+                } catch (RuntimeException e) {
+                    log.warn("Lease of user export {} could not be renewed", export.getId(), e);
+                }
+            }
+        }
+    }
+
+    private Instant leaseEnd() {
+        return Instant.now().plus(userProperties.getExport().getLease());
+    }
+
+    private void run(UserExport export) {
+        try {
+            Files.createDirectories(directoryOf(export.getId()));
+            List<UserExportRange> ranges = export.getRanges().isEmpty() ? split() : export.getRanges();
+            synchronized (export) {
+                export.setRanges(ranges);
+                export.setState(UserExportState.RUNNING);
+                export.setRunningSince(Instant.now());
+                userExportRepository.save(export);
+            }
+
+            List<Future<?>> scansOfExport = new ArrayList<>();
+            for (int i = 0; i < export.getRanges().size(); i++) {
+                if (!export.getRanges().get(i).done()) {
+                    int range = i;
+                    scansOfExport.add(scans.submit(() -> scan(export, range)));
+                }
+            }
+            try {
+                for (Future<?> scan : scansOfExport) {
+                    scan.get();
+                }
+            } finally {
+                scansOfExport.forEach(scan -> scan.cancel(true));
+            }
+
+            long bytes = concatenate(export);
+            finish(export, UserExportState.DONE, null);
+            log.info("User export {} is done, {} users in {} bytes", export.getId(), usersOf(export), bytes);
+        } catch (InterruptedException | CancellationException | RejectedExecutionException e) {
+            finish(export, UserExportState.INTERRUPTED, null);
+            Thread.currentThread().interrupt();
+        } catch (OptimisticLockingFailureException e) {
+            lost(export);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OptimisticLockingFailureException) {
+                lost(export);
+                return;
+            }
+            if (jobs.isShutdown()) {
+                // a scan that saw the interrupt first
+                finish(export, UserExportState.INTERRUPTED, null);
+                return;
+            }
+            log.error("User export {} failed", export.getId(), e.getCause());
+            finish(export, UserExportState.FAILED, String.valueOf(e.getCause().getMessage()));
+        } catch (IOException | RuntimeException e) {
+            log.error("User export {} failed", export.getId(), e);
+            finish(export, UserExportState.FAILED, String.valueOf(e.getMessage()));
+        }
+    }
+
+    // ranges of about rangeUsers each, ObjectIds only; ids of other types get a range of their own.
+    // Every boundary is found from the one before it, rangeUsers entries further in the _id index,
+    // so the whole split walks the index once
+    private List<UserExportRange> split() {
+        long rangeUsers = Math.max(1, userProperties.getExport().getRangeUsers());
+        List<UserExportRange> ranges = new ArrayList<>();
+        for (int partition = 0; partition < userPartitionService.size(); partition++) {
+            MongoOperations ops = userPartitionService.partition(partition);
+            String from = null;
+            while (true) {
+                Criteria after = from == null
+                        ? where("id").type(JsonSchemaObject.Type.OBJECT_ID)
+                        : where("id").gte(new ObjectId(from));
+                Query query = query(after)
+                        .with(Sort.by("id"))
+                        .skip(rangeUsers)
+                        .limit(1);
+                query.fields().include("id");
+                User boundary = ops.findOne(query, User.class);
+                if (boundary == null) {
+                    break;
+                }
+                ranges.add(UserExportRange.of(partition, from, boundary.getId()));
+                from = boundary.getId();
+            }
+            ranges.add(UserExportRange.of(partition, from, null));
+            ranges.add(UserExportRange.otherIds(partition));
+        }
+        return ranges;
+    }
+
+    private void scan(UserExport export, int index) {
+        UserExportRange range = export.getRanges().get(index);
+        Path part = partOf(export.getId(), index);
+        ObjectWriter writer = objectMapper.writerFor(User.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long start = System.nanoTime();
+        long users = 0;
+        // a part cut off halfway is written again from the start
+        try (Stream<User> stream = userPartitionService.partition(range.partition())
+                .stream(query(criteriaOf(range)).with(Sort.by("id")), User.class);
+             OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(part)), 1 << 16);
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            Iterator<User> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("User export " + export.getId() + " was interrupted");
+                }
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                users++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long bytes;
+        try {
+            bytes = Files.size(part);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rangeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        exportedUsers.increment(users);
+        exportedBytes.increment(bytes);
+        synchronized (export) {
+            export.getRanges().set(index, range.done(users, bytes));
+            userExportRepository.save(export);
+        }
+    }
+
+    private static Criteria criteriaOf(UserExportRange range) {
+        if (range.otherIds()) {
+            return where("id").not().type(JsonSchemaObject.Type.OBJECT_ID);
+        }
+        // the ObjectId bounds only match ObjectIds, the open range needs the type itself
+        Criteria criteria = where("id");
+        if (range.from() == null && range.to() == null) {
+            return criteria.type(JsonSchemaObject.Type.OBJECT_ID);
+        }
+        if (range.from() != null) {
+            criteria.gte(new ObjectId(range.from()));
+        }
+        if (range.to() != null) {
+            criteria.lt(new ObjectId(range.to()));
+        }
+        return criteria;
+    }
+
+    // gzip members concatenated are one gzip stream, so the parts are copied as they are
+    private long concatenate(UserExport export) throws IOException {
+        Path directory = directoryOf(export.getId());
+        Path file = directory.resolve(FILE_NAME);
+        try (FileChannel target = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < export.getRanges().size(); i++) {
+                Path part = partOf(export.getId(), i);
+                try (FileChannel source = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long size = source.size();
+                    for (long position = 0; position < size; ) {
+                        position += source.transferTo(position, size - position, target);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < export.getRanges().size(); i++) {
+            Files.deleteIfExists(partOf(export.getId(), i));
+        }
+        return Files.size(file);
+    }
+
+    // the export is no longer leased once it stopped, any instance may resume it
+    private void finish(UserExport export, UserExportState state, String error) {
+        synchronized (export) {
+            if (export.getRunningSince() != null) {
+                export.setElapsedMillis(export.getElapsedMillis()
+                        + Duration.between(export.getRunningSince(), Instant.now()).toMillis());
+                export.setRunningSince(null);
+            }
+            export.setState(state);
+            export.setError(error);
+            export.setLeaseUntil(null);
+            if (state == UserExportState.DONE) {
+                export.setFinishedAt(Instant.now());
+            }
+            // a job stopped by shutdownNow may still carry the interrupt, the driver would refuse the save
+            boolean interrupted = Thread.interrupted();
+            try {
+                userExportRepository.save(export);
+            } catch (OptimisticLockingFailureException e) {
+                log.warn("User export {} was taken over by another instance, its state is left to it", export.getId());
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        active.remove(export.getId());
+    }
+
+    private void lost(UserExport export) {
+        log.warn("User export {} was taken over by another instance, this run stops", export.getId());
+        active.remove(export.getId());
+    }
+
+    // takes an export over for this instance, false while another instance holds its lease;
+    // one left RUNNING or QUEUED by an instance that is gone is INTERRUPTED from here on
+    private boolean suspend(UserExport export) {
+        Instant now = Instant.now();
+        if (export.getLeaseUntil() != null && export.getLeaseUntil().isAfter(now)
+                && !instance.equals(export.getOwner())) {
+            return false;
+        }
+        if (export.getRunningSince() != null) {
+            // the end of that run is unknown, its time is not counted
+            export.setRunningSince(null);
+        }
+        export.setState(UserExportState.INTERRUPTED);
+        export.setOwner(instance);
+        export.setLeaseUntil(leaseEnd());
+        try {
+            userExportRepository.save(export);
+            return true;
+        } catch (OptimisticLockingFailureException e) {
+            // another instance took it over in between
+            return false;
+        }
+    }
+
+    private UserExportStatus statusOf(UserExport export) {
+        synchronized (export) {
+            long millis = export.getElapsedMillis();
+            if (export.getRunningSince() != null) {
+                millis += Duration.between(export.getRunningSince(), Instant.now()).toMillis();
+            }
+            long users = usersOf(export);
+            long bytes = export.getRanges().stream().mapToLong(UserExportRange::bytes).sum();
+            int done = (int) export.getRanges().stream().filter(UserExportRange::done).count();
+            double seconds = millis / 1000.0;
+            return new UserExportStatus(export.getId(), export.getState(), export.getRanges().size(), done,
+                    users, bytes, export.getCreatedAt(), export.getFinishedAt(), seconds,
+                    seconds > 0 ? users / seconds : 0, seconds > 0 ? bytes / seconds / (1 << 20) : 0,
+                    export.getError());
+        }
+    }
+
+    private static long usersOf(UserExport export) {
+        return export.getRanges().stream().mapToLong(UserExportRange::users).sum();
+    }
+
+    private Path directoryOf(String id) {
+        return userProperties.getExport().getDirectory().resolve(id);
+    }
+
+    private Path partOf(String id, int range) {
+        return directoryOf(id).resolve(String.format("part-%05d.ndjson.gz", range));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
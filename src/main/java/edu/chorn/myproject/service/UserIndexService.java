@@ -0,0 +1,154 @@
+package edu.chorn.myproject.service;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserIndexService
+    @version 1.0.0
+    @since 18.10.2026 - 14.05
+*/
+
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.util.UserPartitions;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mapping.PersistentPropertyPath;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserIndexService {
+
+    // predicates a B-tree index can not serve, these methods scan by design
+    private static final Set<Part.Type> SCANNING_PARTS = EnumSet.of(
+            Part.Type.CONTAINING, Part.Type.NOT_CONTAINING, Part.Type.ENDING_WITH,
+            Part.Type.LIKE, Part.Type.NOT_LIKE, Part.Type.REGEX);
+
+    private final UserPartitions userPartitions;
+    private final MongoMappingContext mappingContext;
+    private final UserProperties userProperties;
+
+    // the check needs no database round trip, so it always runs before traffic is accepted
+    @PostConstruct
+    public void init() {
+        verifyQueryMethods();
+        if (userProperties.getIndexes().getMode() == UserProperties.Indexes.Mode.BLOCKING) {
+            provisionIndexes();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (userProperties.getIndexes().getMode() == UserProperties.Indexes.Mode.BACKGROUND) {
+            Thread thread = new Thread(this::provisionIndexes, "user-index-provisioning");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    // creates every index declared on User in every partition, existing ones are left as they are
+    public void provisionIndexes() {
+        for (int partition = 0; partition < userPartitions.size(); partition++) {
+            IndexOperations indexOps = userPartitions.get(partition).indexOps(User.class);
+            for (IndexDefinition definition : declaredIndexes()) {
+                try {
+                    String name = indexOps.ensureIndex(definition);
+                    log.info("User index {} is in place in {}", name, userPartitions.name(partition));
+                } catch (RuntimeException e) {
+                    log.error("Could not create User index {} in {}", definition.getIndexKeys().toJson(),
+                            userPartitions.name(partition), e);
+                }
+            }
+        }
+    }
+
+    // every derived query in UserRepository has to lead with an indexed field
+    public List<String> verifyQueryMethods() {
+        Set<String> leadingKeys = new HashSet<>();
+        leadingKeys.add("_id");
+        for (IndexDefinition definition : declaredIndexes()) {
+            Document keys = definition.getIndexKeys();
+            if (!keys.isEmpty() && !keys.containsValue("text")) {
+                leadingKeys.add(keys.keySet().iterator().next());
+            }
+        }
+
+        List<String> unsupported = new ArrayList<>();
+        for (Method method : UserRepository.class.getDeclaredMethods()) {
+            if (method.isDefault() || method.isAnnotationPresent(Query.class)) {
+                continue;
+            }
+            String problem = checkMethod(method.getName(), leadingKeys);
+            if (problem != null) {
+                unsupported.add(method.getName() + ": " + problem);
+            }
+        }
+
+        if (!unsupported.isEmpty()) {
+            String message = "UserRepository query methods without a supporting index " + unsupported;
+            if (userProperties.getIndexes().isFailOnMissing()) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+        return unsupported;
+    }
+
+    private String checkMethod(String methodName, Set<String> leadingKeys) {
+        PartTree tree = new PartTree(methodName, User.class);
+        Set<String> fields = new HashSet<>();
+        for (Part part : tree.getParts()) {
+            if (SCANNING_PARTS.contains(part.getType())) {
+                log.info("UserRepository.{} uses {} on {} and always scans", methodName,
+                        part.getType().name(), part.getProperty().toDotPath());
+                return null;
+            }
+            fields.add(fieldName(part));
+        }
+        if (fields.isEmpty()) {
+            return null;
+        }
+        for (String field : fields) {
+            if (leadingKeys.contains(field)) {
+                return null;
+            }
+        }
+        return "no index leads with any of " + fields;
+    }
+
+    private String fieldName(Part part) {
+        PersistentPropertyPath<MongoPersistentProperty> path =
+                mappingContext.getPersistentPropertyPath(part.getProperty());
+        return path.toDotPath(MongoPersistentProperty::getFieldName);
+    }
+
+    private List<IndexDefinition> declaredIndexes() {
+        List<IndexDefinition> definitions = new ArrayList<>();
+        new MongoPersistentEntityIndexResolver(mappingContext)
+                .resolveIndexFor(User.class)
+                .forEach(definitions::add);
+        return definitions;
+    }
+}
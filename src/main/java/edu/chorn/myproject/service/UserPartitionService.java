@@ -0,0 +1,439 @@
+package edu.chorn.myproject.service;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserPartitionService
+    @version 1.0.0
+    @since 19.10.2026 - 18.00
+*/
+
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.dto.UserField;
+import edu.chorn.myproject.dto.UserPartitionStatus;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.util.UserIds;
+import edu.chorn.myproject.util.UserPartitions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// routing of the user collection over its hash partitions: single-id operations go to the
+// partition of the id, everything else is scattered over all partitions in parallel and merged
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserPartitionService {
+
+    private final UserRepository userRepository;
+    private final UserPartitions userPartitions;
+    private final UserProperties userProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean rebalancing = new AtomicBoolean();
+    private final AtomicLong moved = new AtomicLong();
+    private ExecutorService scatter;
+    private Counter movedCounter;
+
+    @PostConstruct
+    public void start() {
+        if (!userPartitions.isPartitioned()) {
+            return;
+        }
+        scatter = Executors.newFixedThreadPool(userProperties.getPartitions().getScatterThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "user-partition-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        movedCounter = Counter.builder("users.partitions.moved")
+                .description("Users moved to their partition by a rebalance or a write")
+                .register(meterRegistry);
+        log.info("User collection is split over {} partitions {}", userPartitions.size(),
+                IntStream.range(0, userPartitions.size()).mapToObj(userPartitions::name).toList());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scatter != null) {
+            scatter.shutdownNow();
+        }
+    }
+
+    public boolean isPartitioned() {
+        return userPartitions.isPartitioned();
+    }
+
+    public int size() {
+        return userPartitions.size();
+    }
+
+    public MongoOperations partition(int partition) {
+        return userPartitions.get(partition);
+    }
+
+    public List<ReactiveMongoOperations> reactivePartitions() {
+        return userPartitions.allReactive();
+    }
+
+    // the batch positions of the ids, one list per partition
+    public List<List<Integer>> groupByPartition(List<String> ids) {
+        List<List<Integer>> groups = new ArrayList<>();
+        for (int i = 0; i < userPartitions.size(); i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            groups.get(userPartitions.partitionOf(ids.get(i))).add(i);
+        }
+        return groups;
+    }
+
+    public User findById(String id) {
+        User user = userPartitions.get(userPartitions.partitionOf(id)).findById(id, User.class);
+        if (user == null && userPartitions.isRebalancing()) {
+            int previous = userPartitions.previousPartitionOf(id);
+            if (previous != userPartitions.partitionOf(id)) {
+                user = userPartitions.get(previous).findById(id, User.class);
+            }
+        }
+        return user;
+    }
+
+    // a name can be in any partition, every partition is asked
+    public boolean existsByName(String name) {
+        return scatter(ops -> List.of(ops.exists(query(where("name").is(name)), User.class))).contains(true);
+    }
+
+    // one $in per partition, in parallel
+    public List<User> findAllById(Collection<String> ids) {
+        List<String> idList = new ArrayList<>(ids);
+        List<List<Integer>> groups = groupByPartition(idList);
+        List<Supplier<List<User>>> reads = new ArrayList<>();
+        for (int partition = 0; partition < groups.size(); partition++) {
+            List<String> partitionIds = groups.get(partition).stream().map(idList::get).toList();
+            MongoOperations ops = userPartitions.get(partition);
+            if (!partitionIds.isEmpty()) {
+                reads.add(() -> ops.find(query(where("id").in(partitionIds)), User.class));
+            }
+        }
+        List<User> users = gather(reads);
+        if (userPartitions.isRebalancing()) {
+            Set<String> found = new HashSet<>();
+            users.forEach(user -> found.add(user.getId()));
+            for (String id : idList) {
+                if (!found.contains(id)) {
+                    User user = findById(id);
+                    if (user != null) {
+                        users.add(user);
+                    }
+                }
+            }
+        }
+        return users;
+    }
+
+    public Mono<User> findByIdReactive(String id) {
+        int target = userPartitions.partitionOf(id);
+        Mono<User> user = userPartitions.getReactive(target).findById(id, User.class);
+        int previous = userPartitions.previousPartitionOf(id);
+        if (!userPartitions.isRebalancing() || previous == target) {
+            return user;
+        }
+        return user.switchIfEmpty(Mono.defer(() -> userPartitions.getReactive(previous).findById(id, User.class)));
+    }
+
+    // all partitions at once, in no particular order
+    public Flux<User> streamAllReactive() {
+        return Flux.merge(userPartitions.allReactive().stream()
+                .map(ops -> ops.findAll(User.class))
+                .toList());
+    }
+
+    // every partition streams its matches by score, the merge keeps that order overall
+    @SuppressWarnings("unchecked")
+    public Flux<User> searchReactive(String text) {
+        Comparator<Document> byScore = Comparator.comparing(
+                (Document document) -> document.get("score", Number.class).doubleValue()).reversed();
+        List<Flux<Document>> matches = userPartitions.allReactive().stream()
+                .map(ops -> {
+                    TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                            .includeScore("score")
+                            .sortByScore();
+                    return ops.find(query, Document.class, ops.getCollectionName(User.class));
+                })
+                .toList();
+        MongoOperations any = userPartitions.get(0);
+        Flux<Document>[] sources = matches.toArray(Flux[]::new);
+        return Flux.mergeComparing(byScore, sources)
+                .map(document -> any.getConverter().read(User.class, document));
+    }
+
+    // forWrite on the reactive driver; only a pending move blocks, and not on the caller's thread
+    public Mono<ReactiveMongoOperations> forWriteReactive(String id) {
+        int target = userPartitions.partitionOf(id);
+        if (!userPartitions.isRebalancing() || userPartitions.previousPartitionOf(id) == target) {
+            return Mono.just(userPartitions.getReactive(target));
+        }
+        return Mono.fromCallable(() -> forWrite(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(userPartitions.getReactive(target));
+    }
+
+    public Mono<Boolean> removeReactive(String id) {
+        int target = userPartitions.partitionOf(id);
+        int previous = userPartitions.previousPartitionOf(id);
+        Query query = query(where("id").is(id));
+        Mono<Boolean> removed = userPartitions.getReactive(target).remove(query, User.class)
+                .map(result -> result.getDeletedCount() > 0);
+        if (!userPartitions.isRebalancing() || previous == target) {
+            return removed;
+        }
+        return removed.zipWith(userPartitions.getReactive(previous).remove(query, User.class)
+                .map(result -> result.getDeletedCount() > 0), Boolean::logicalOr);
+    }
+
+    // the partition a write of the id goes to; while rebalancing, the user is moved there first
+    public MongoOperations forWrite(String id) {
+        int target = userPartitions.partitionOf(id);
+        if (userPartitions.isRebalancing()) {
+            int previous = userPartitions.previousPartitionOf(id);
+            if (previous != target) {
+                User user = userPartitions.get(previous).findById(id, User.class);
+                if (user != null) {
+                    move(user, previous, target);
+                }
+            }
+        }
+        return userPartitions.get(target);
+    }
+
+    // conditional on the version when it is not null
+    public boolean remove(String id, Long version) {
+        boolean removed = remove(userPartitions.partitionOf(id), id, version);
+        if (userPartitions.isRebalancing() && userPartitions.previousPartitionOf(id) != userPartitions.partitionOf(id)) {
+            removed |= remove(userPartitions.previousPartitionOf(id), id, version);
+        }
+        return removed;
+    }
+
+    // keyset page: every partition returns its first fetch ids after the cursor, the merge keeps
+    // the overall first fetch; a user caught mid-move is only returned once
+    public List<User> findPage(String cursor, int fetch, Set<UserField> fields) {
+        return merge(scatter(ops -> {
+            Query query = cursor == null || cursor.isBlank() ? new Query() : query(UserIds.after(cursor));
+            query.with(Sort.by("id")).limit(fetch);
+            includeFields(query, fields);
+            return ops.find(query, User.class);
+        }), Comparator.comparing(User::getId, UserIds.ORDER), fetch);
+    }
+
+    // every partition ranks its own matches, the merge orders them by text score
+    public List<User> search(String text, int page, int pageSize, Set<UserField> fields) {
+        int fetch = (page + 1) * pageSize;
+        List<Document> documents = scatter(ops -> {
+            TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                    .includeScore("score")
+                    .sortByScore();
+            query.with(PageRequest.of(0, fetch));
+            includeFields(query, fields);
+            return ops.find(query, Document.class, ops.getCollectionName(User.class));
+        });
+        documents.sort(Comparator.comparing((Document document) -> document.get("score", Number.class).doubleValue())
+                .reversed());
+        MongoOperations any = userPartitions.get(0);
+        return documents.stream()
+                .skip((long) page * pageSize)
+                .limit(pageSize)
+                .map(document -> any.getConverter().read(User.class, document))
+                .toList();
+    }
+
+    public List<User> findByCode(String code) {
+        return scatter(ops -> ops.find(query(where("code").is(code)), User.class));
+    }
+
+    // partition after partition, the caller owns the stream and has to close it
+    public Stream<User> streamAll(Set<UserField> fields) {
+        return userPartitions.all().stream().flatMap(ops -> {
+            Query query = new Query();
+            includeFields(query, fields);
+            return ops.stream(query, User.class);
+        });
+    }
+
+    public long estimatedCount() {
+        return userPartitions.all().stream().mapToLong(ops -> ops.estimatedCount(User.class)).sum();
+    }
+
+    // rebalance on a background thread, false when one is running already
+    public boolean startRebalance() {
+        if (!rebalancing.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                moveMisplaced();
+            } catch (RuntimeException e) {
+                log.error("Rebalance of the user partitions failed, it can be started again", e);
+            } finally {
+                rebalancing.set(false);
+            }
+        }, "user-partition-rebalance");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    // moves every user that is not in its partition; online, reads and writes go on meanwhile
+    public boolean rebalance() {
+        if (!rebalancing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            moveMisplaced();
+            return true;
+        } finally {
+            rebalancing.set(false);
+        }
+    }
+
+    private void moveMisplaced() {
+        for (int source = 0; source < userPartitions.size(); source++) {
+            int from = source;
+            try (Stream<User> users = userPartitions.get(from).stream(new Query(), User.class)) {
+                users.forEach(user -> {
+                    int target = userPartitions.partitionOf(user.getId());
+                    if (target != from) {
+                        move(user, from, target);
+                    }
+                });
+            }
+        }
+        userPartitions.markRebalanced();
+        log.info("User partitions are rebalanced, {} users moved so far", moved.get());
+    }
+
+    public UserPartitionStatus status() {
+        List<UserPartitionStatus.Partition> partitions = new ArrayList<>();
+        for (int i = 0; i < userPartitions.size(); i++) {
+            // partition 0 is the database of UserRepository
+            long count = i == 0 ? userRepository.count() : userPartitions.get(i).count(new Query(), User.class);
+            partitions.add(new UserPartitionStatus.Partition(i, userPartitions.name(i), count));
+        }
+        return new UserPartitionStatus(partitions, userPartitions.getPreviousCount(),
+                userPartitions.isRebalancing(), rebalancing.get(), moved.get());
+    }
+
+    // copy first, then drop the source copy of exactly that version: a newer write in the target
+    // wins over the copy, and the source is never left without the user in between; when the
+    // source changed after it was read (deleted, or written by a caller that routed there before
+    // the rebalance) the copy is taken back, so a deleted user is not brought back to life,
+    // and a user still in the source is read again and moved at its current version
+    private void move(User user, int from, int to) {
+        User current = user;
+        while (current != null) {
+            boolean copied;
+            try {
+                userPartitions.get(to).insert(current);
+                copied = true;
+            } catch (DuplicateKeyException e) {
+                log.debug("User {} is already in partition {}", current.getId(), to);
+                copied = false;
+            }
+            if (remove(from, current.getId(), current.getVersion())) {
+                moved.incrementAndGet();
+                if (movedCounter != null) {
+                    movedCounter.increment();
+                }
+                return;
+            }
+            if (copied) {
+                remove(to, current.getId(), current.getVersion());
+            }
+            current = userPartitions.get(from).findById(current.getId(), User.class);
+        }
+    }
+
+    private boolean remove(int partition, String id, Long version) {
+        Query query = query(where("id").is(id));
+        if (version != null) {
+            query.addCriteria(where("version").is(version));
+        }
+        return userPartitions.get(partition).remove(query, User.class).getDeletedCount() > 0;
+    }
+
+    private <T> List<T> scatter(Function<MongoOperations, List<T>> read) {
+        return gather(userPartitions.all().stream()
+                .map(ops -> (Supplier<List<T>>) () -> read.apply(ops))
+                .toList());
+    }
+
+    private <T> List<T> gather(List<Supplier<List<T>>> reads) {
+        List<CompletableFuture<List<T>>> futures = reads.stream()
+                .map(read -> CompletableFuture.supplyAsync(read, scatter))
+                .toList();
+        List<T> results = new ArrayList<>();
+        try {
+            futures.forEach(future -> results.addAll(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private static List<User> merge(List<User> users, Comparator<User> order, int limit) {
+        Map<String, User> unique = new LinkedHashMap<>();
+        users.stream().sorted(order).forEach(user -> unique.putIfAbsent(user.getId(), user));
+        return unique.values().stream().limit(limit).toList();
+    }
+
+    private static void includeFields(Query query, Set<UserField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return;
+        }
+        for (UserField field : fields) {
+            query.fields().include(field.getProperty());
+        }
+    }
+}
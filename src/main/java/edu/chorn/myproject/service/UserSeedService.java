@@ -0,0 +1,129 @@
+package edu.chorn.myproject.service;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserSeedService
+    @version 1.0.0
+    @since 18.10.2026 - 15.20
+*/
+
+import com.mongodb.bulk.BulkWriteUpsert;
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.model.SeedVersion;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.SeedVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserSeedService {
+
+    static final String SEED_ID = "users";
+
+    // bump SEED_VERSION together with any change of the seed data
+    static final int SEED_VERSION = 1;
+
+    // fixed ids: the unique _id index lets one seed user in only once, however many
+    // instances seed at the same time; ObjectIds, like every other id of the collection
+    private static final List<User> SEED_USERS = List.of(
+            new User("000000000000000000000001", "name1", "000001", "description1"),
+            new User("000000000000000000000002", "name2", "000002", "description2"),
+            new User("000000000000000000000003", "name3", "000003", "description3"));
+
+    private final SeedVersionRepository seedVersionRepository;
+    private final MongoOperations mongoOperations;
+    private final UserProperties userProperties;
+    private final UserBloomFilterService userBloomFilterService;
+    private final UserPartitionService userPartitionService;
+
+    // runs after the app is ready and off the main thread, startup never waits for it
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!userProperties.getSeed().isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(this::seed, "user-seed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void seed() {
+        int applied = seedVersionRepository.findById(SEED_ID)
+                .map(SeedVersion::getVersion)
+                .orElse(0);
+        if (applied >= SEED_VERSION) {
+            log.debug("User seed version {} is already applied", applied);
+            return;
+        }
+
+        try {
+            if (userPartitionService.isPartitioned()) {
+                seedPartitioned();
+                return;
+            }
+            List<User> missing = missing(code -> mongoOperations.exists(query(where("code").is(code)), User.class));
+            int inserted = 0;
+            if (!missing.isEmpty()) {
+                // upsert keyed on the seed id, existing users are never overwritten
+                BulkOperations bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                missing.forEach(user -> bulk.upsert(query(where("id").is(user.getId())), insertOnly(user)));
+                for (BulkWriteUpsert upsert : bulk.execute().getUpserts()) {
+                    userBloomFilterService.add(missing.get(upsert.getIndex()));
+                    inserted++;
+                }
+            }
+            seedVersionRepository.save(new SeedVersion(SEED_ID, SEED_VERSION, Instant.now()));
+            log.info("Applied user seed version {}, {} users inserted", SEED_VERSION, inserted);
+        } catch (RuntimeException e) {
+            // the marker is not written, so the next start tries again
+            log.error("User seed version {} failed", SEED_VERSION, e);
+        }
+    }
+
+    // code is not the partition key, so the lookup goes over all partitions; the seed id picks
+    // the one partition its upsert goes to
+    private void seedPartitioned() {
+        int inserted = 0;
+        for (User user : missing(code -> !userPartitionService.findByCode(code).isEmpty())) {
+            if (userPartitionService.forWrite(user.getId())
+                    .upsert(query(where("id").is(user.getId())), insertOnly(user), User.class)
+                    .getUpsertedId() != null) {
+                userBloomFilterService.add(user);
+                inserted++;
+            }
+        }
+        seedVersionRepository.save(new SeedVersion(SEED_ID, SEED_VERSION, Instant.now()));
+        log.info("Applied user seed version {}, {} users inserted", SEED_VERSION, inserted);
+    }
+
+    // a seed user is there if its code is, also when an earlier seed inserted it under another id
+    private static List<User> missing(Predicate<String> codeExists) {
+        return SEED_USERS.stream()
+                .filter(user -> !codeExists.test(user.getCode()))
+                .toList();
+    }
+
+    private static Update insertOnly(User user) {
+        return new Update()
+                .setOnInsert("name", user.getName())
+                .setOnInsert("code", user.getCode())
+                .setOnInsert("description", user.getDescription())
+                .setOnInsert("version", 0L);
+    }
+}
@@ -8,53 +8,634 @@ package edu.chorn.myproject.service;
     @since 08.04.2025 - 17.36
 */
 
+import com.mongodb.bulk.BulkWriteError;
+import edu.chorn.myproject.config.CacheConfig;
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.dto.BulkImportResult;
+import edu.chorn.myproject.dto.UserField;
+import edu.chorn.myproject.dto.UserMultiGetResult;
+import edu.chorn.myproject.dto.UserPage;
+import edu.chorn.myproject.dto.UserPatch;
 import edu.chorn.myproject.model.User;
 import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.util.BatchLoader;
+import edu.chorn.myproject.util.CollectionRevision;
+import edu.chorn.myproject.util.InvalidRequestException;
+import edu.chorn.myproject.util.SingleFlight;
+import edu.chorn.myproject.util.UserBulkReader;
+import edu.chorn.myproject.util.UserIds;
+import edu.chorn.myproject.util.UserReadRouting;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    // one timer, tagged with class and method by the TimedAspect
+    static final String TIMER = "users.service";
+
     private final UserRepository userRepository;
+    private final MongoOperations mongoOperations;
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final CacheManager cacheManager;
+    private final UserProperties userProperties;
+    private final MeterRegistry meterRegistry;
+    private final CollectionRevision usersRevision;
+    private final UserBloomFilterService userBloomFilterService;
+    // one partition unless users.partitions.databases is set, the repository serves it then
+    private final UserPartitionService userPartitionService;
+    // secondaries for the read paths when users.reads.secondary-enabled is set
+    private final UserReadRouting userReadRouting;
 
-    private List<User> userList = new ArrayList<>();
-    {
-        userList.add(new User("name1", "000001", "description1"));
-        userList.add(new User("name2", "000002", "description2"));
-        userList.add(new User("name3", "000003", "description3"));
-    }
+    private final SingleFlight<String, User> inFlightLookups = new SingleFlight<>();
+    // null unless users.lookup.batch-window is set
+    private BatchLoader<String, User> batchLoader;
 
     @PostConstruct
     public void init() {
-        userRepository.deleteAll();
-        userRepository.saveAll(userList);
+        FunctionCounter.builder("users.lookups.coalesced", inFlightLookups, SingleFlight::sharedCount)
+                .description("getById calls served by a lookup another call already had in flight")
+                .register(meterRegistry);
+
+        UserProperties.Lookup lookup = userProperties.getLookup();
+        if (lookup.getBatchWindow() != null && !lookup.getBatchWindow().isZero()) {
+            DistributionSummary batchSize = DistributionSummary.builder("users.lookups.batch.size")
+                    .description("Number of ids in one batched findAllById")
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue((double) lookup.getBatchMaxSize())
+                    .register(meterRegistry);
+            batchLoader = new BatchLoader<>(lookup.getBatchWindow(), lookup.getBatchMaxSize(),
+                    this::lookupAll, batchSize::record);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (batchLoader != null) {
+            batchLoader.close();
+        }
     }
 
     //  CRUD   - create read update delete
 
-    public List<User> getAll() {
-        return userRepository.findAll();
+    // weak ETag of every list read, current until the next write; null without the change
+    // stream, writes of other instances would never move it on
+    public String getListETag() {
+        return userProperties.getChanges().isEnabled() ? usersRevision.eTag() : null;
+    }
+
+    // Last-Modified of the list reads, along with getListETag
+    public long getListLastModified() {
+        return usersRevision.lastModified();
+    }
+
+    @Timed(TIMER)
+    public UserPage getPage(String cursor, Integer limit, Set<UserField> fields) {
+        int pageSize = userProperties.getPage().resolve(limit);
+        // one extra row tells us whether there is a next page
+        Limit fetch = Limit.of(pageSize + 1);
+        boolean firstPage = cursor == null || cursor.isBlank();
+        List<User> users;
+        if (userPartitionService.isPartitioned()) {
+            users = userPartitionService.findPage(cursor, fetch.max(), fields);
+        } else if ((fields == null || fields.isEmpty()) && !userReadRouting.isEnabled()) {
+            if (firstPage) {
+                users = userRepository.findAllByOrderByIdAsc(fetch);
+            } else if (UserIds.isObjectId(cursor)) {
+                users = userRepository.findByIdGreaterThanOrderByIdAsc(cursor, fetch);
+            } else {
+                users = userRepository.findAfterStringIdOrderByIdAsc(cursor, fetch);
+            }
+        } else {
+            // projected read: Mongo only returns (and we only decode) the requested fields
+            Query query = firstPage ? new Query() : query(UserIds.after(cursor));
+            query.with(Sort.by("id")).limit(fetch);
+            includeFields(query, fields);
+            users = userReadRouting.read(UserReadRouting.Path.LIST, query, (ops, q) -> ops.find(q, User.class));
+        }
+
+        resultSize("getPage").record(Math.min(users.size(), pageSize));
+        if (users.size() <= pageSize) {
+            return new UserPage(users, null);
+        }
+        List<User> page = users.subList(0, pageSize);
+        return new UserPage(page, page.get(pageSize - 1).getId());
+    }
+
+    // full-text search over the name/description text index, best matches first
+    @Timed(TIMER)
+    public List<User> search(String text, int page, Integer size, Set<UserField> fields) {
+        int pageSize = userProperties.getPage().resolve(size);
+        if (userPartitionService.isPartitioned()) {
+            List<User> users = userPartitionService.search(text, Math.max(page, 0), pageSize, fields);
+            resultSize("search").record(users.size());
+            return users;
+        }
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore();
+        query.with(PageRequest.of(Math.max(page, 0), pageSize));
+        includeFields(query, fields);
+        List<User> users = userReadRouting.read(UserReadRouting.Path.SEARCH, query,
+                (ops, q) -> ops.find(q, User.class));
+        resultSize("search").record(users.size());
+        return users;
+    }
+
+    // the caller owns the returned stream and has to close it
+    public Stream<User> streamAll(Set<UserField> fields) {
+        Stream<User> users;
+        if (userPartitionService.isPartitioned()) {
+            users = userPartitionService.streamAll(fields);
+        } else if ((fields == null || fields.isEmpty()) && !userReadRouting.isEnabled()) {
+            users = userRepository.streamAllBy();
+        } else {
+            // on the list path like getPage; a stream runs outside the request's CausalContext
+            Query query = new Query();
+            includeFields(query, fields);
+            users = userReadRouting.read(UserReadRouting.Path.LIST, query, (ops, q) -> ops.stream(q, User.class));
+        }
+        AtomicLong count = new AtomicLong();
+        return users
+                .peek(user -> count.incrementAndGet())
+                .onClose(() -> resultSize("streamAll").record(count.get()));
     }
 
+    // misses are not cached, so an id created later is visible right away;
+    // ids the bloom filter has never seen cost no query, concurrent misses of one id share a single lookup
+    @Timed(TIMER)
     public User getById(String id) {
+        Cache cache = usersCache();
+        User cached = cache.get(id, User.class);
+        if (cached != null) {
+            return cached;
+        }
+        if (!userBloomFilterService.mightContainId(id)) {
+            return null;
+        }
+        return inFlightLookups.load(id, this::lookupAndCache);
+    }
+
+    @Timed(TIMER)
+    public boolean existsByName(String name) {
+        return userBloomFilterService.existsByName(name);
+    }
+
+    // the revision is read before the lookup starts, batched or not
+    private User lookupAndCache(String id) {
+        long revision = usersRevision.revisionOf(id);
+        User user = batchLoader == null ? findOne(id) : batchLoader.load(id);
+        cacheLoaded(id, user, revision);
+        return user;
+    }
+
+    // a user read before a write of its id must not replace what that write cached (or evicted):
+    // only cached while the id saw no write since the revision was read, and only if absent;
+    // a write that slips in between the check and the put is caught by the second check
+    private void cacheLoaded(String id, User user, long revision) {
+        if (user == null || usersRevision.revisionOf(id) != revision) {
+            return;
+        }
+        Cache cache = usersCache();
+        cache.putIfAbsent(id, user);
+        if (usersRevision.revisionOf(id) != revision) {
+            cache.evict(id);
+        }
+    }
+
+    // one findAllById ($in on _id) for every id missed within the batch window
+    private Map<String, User> lookupAll(Set<String> ids) {
+        Map<String, User> users = new HashMap<>();
+        findAll(ids).forEach(user -> users.put(user.getId(), user));
+        return users;
+    }
+
+    private User findOne(String id) {
+        if (userPartitionService.isPartitioned()) {
+            return userPartitionService.findById(id);
+        }
+        if (userReadRouting.isEnabled()) {
+            return userReadRouting.read(UserReadRouting.Path.BY_ID, query(where("id").is(id)),
+                    (ops, q) -> ops.findOne(q, User.class));
+        }
         return userRepository.findById(id).orElse(null);
     }
 
-    public User create(User user) {
+    private Iterable<User> findAll(Set<String> ids) {
+        if (userPartitionService.isPartitioned()) {
+            return userPartitionService.findAllById(ids);
+        }
+        if (userReadRouting.isEnabled()) {
+            return userReadRouting.read(UserReadRouting.Path.BY_ID, query(where("id").in(ids)),
+                    (ops, q) -> ops.find(q, User.class));
+        }
+        return userRepository.findAllById(ids);
+    }
+
+    // on the partition of the id; with one partition through the routing, which hands the
+    // operation time of the write to a causal client
+    private <T> T write(String id, Function<MongoOperations, T> write) {
+        return userPartitionService.isPartitioned()
+                ? write.apply(userPartitionService.forWrite(id))
+                : userReadRouting.write(write);
+    }
+
+    // versioned save, a stale version ends in OptimisticLockingFailureException
+    private User save(User user) {
+        if (userPartitionService.isPartitioned() || userReadRouting.isEnabled()) {
+            return write(user.getId(), ops -> ops.save(user));
+        }
         return userRepository.save(user);
     }
 
+    // cache hits first, one findAllById for the rest the bloom filter doesn't rule out;
+    // found misses are cached like getById does
+    @Timed(TIMER)
+    public UserMultiGetResult getByIds(List<String> ids) {
+        int maxIds = userProperties.getMultiGet().getMaxIds();
+        if (ids.size() > maxIds) {
+            throw new InvalidRequestException("At most " + maxIds + " ids per request, got " + ids.size());
+        }
+
+        Cache cache = usersCache();
+        Map<String, User> users = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (String id : ids) {
+            User cached = cache.get(id, User.class);
+            if (cached != null) {
+                users.put(id, cached);
+            } else if (userBloomFilterService.mightContainId(id)) {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<String, Long> revisions = new HashMap<>();
+            misses.forEach(id -> revisions.put(id, usersRevision.revisionOf(id)));
+            findAll(misses).forEach(user -> {
+                users.put(user.getId(), user);
+                cacheLoaded(user.getId(), user, revisions.get(user.getId()));
+            });
+        }
+
+        List<UserMultiGetResult.Item> items = new ArrayList<>(ids.size());
+        int found = 0;
+        for (String id : ids) {
+            User user = users.get(id);
+            items.add(new UserMultiGetResult.Item(id, user != null, user));
+            if (user != null) {
+                found++;
+            }
+        }
+        resultSize("getByIds").record(found);
+        return new UserMultiGetResult(items, found, ids.size() - found);
+    }
+
+    @Timed(TIMER)
+    public List<User> getByCode(String code) {
+        List<User> users = userPartitionService.isPartitioned()
+                ? userPartitionService.findByCode(code)
+                : userRepository.findByCode(code);
+        resultSize("getByCode").record(users.size());
+        return users;
+    }
+
+    @CachePut(cacheNames = CacheConfig.USERS, key = "#result.id")
+    @Timed(TIMER)
+    public User create(User user) {
+        if (userPartitionService.isPartitioned() && user.getId() == null) {
+            // the id picks the partition, so it has to be known before the write
+            user.setId(new ObjectId().toHexString());
+        }
+        User created = save(user);
+        userBloomFilterService.add(created);
+        usersRevision.advance(created.getId());
+        return created;
+    }
+
+    @CachePut(cacheNames = CacheConfig.USERS, key = "#result.id")
+    @Timed(TIMER)
     public User update(User user) {
-        return userRepository.save(user);
+        User updated;
+        if (user.getId() == null && userPartitionService.isPartitioned()) {
+            user.setId(new ObjectId().toHexString());
+        }
+        if (user.getId() == null || user.getVersion() != null) {
+            updated = save(user);
+        } else {
+            // no version from the client: last writer wins, but the version still moves on
+            updated = write(user.getId(), ops -> ops.findAndModify(query(where("id").is(user.getId())),
+                    replacementOf(user), FindAndModifyOptions.options().returnNew(true).upsert(true), User.class));
+        }
+        userBloomFilterService.add(updated);
+        usersRevision.advance(updated.getId());
+        return updated;
     }
 
+    // $set of the given fields only, no read-modify-write
+    @Timed(TIMER)
+    @CachePut(cacheNames = CacheConfig.USERS, key = "#id", unless = "#result == null")
+    public User patch(String id, UserPatch patch) {
+        if (patch.isEmpty()) {
+            return findOne(id);
+        }
+        Update update = new Update().inc("version", 1);
+        if (patch.name() != null) {
+            update.set("name", patch.name());
+        }
+        if (patch.code() != null) {
+            update.set("code", patch.code());
+        }
+        if (patch.description() != null) {
+            update.set("description", patch.description());
+        }
+
+        Criteria criteria = where("id").is(id);
+        if (patch.version() != null) {
+            criteria.and("version").is(patch.version());
+        }
+        User patched = write(id, ops -> ops.findAndModify(query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+        if (patched != null) {
+            userBloomFilterService.add(patched);
+            usersRevision.advance(id);
+        }
+        if (patched == null && patch.version() != null && findOne(id) != null) {
+            throw new OptimisticLockingFailureException(
+                    "User " + id + " is no longer at version " + patch.version());
+        }
+        return patched;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS)
+    @Timed(TIMER)
     public void delById(String id) {
-        userRepository.deleteById(id);
+        if (userPartitionService.isPartitioned()) {
+            userPartitionService.remove(id, null);
+        } else if (userReadRouting.isEnabled()) {
+            userReadRouting.write(ops -> ops.remove(query(where("id").is(id)), User.class));
+        } else {
+            userRepository.deleteById(id);
+        }
+        usersRevision.advance(id);
+    }
+
+    // conditional delete, only at the given version (any version when null);
+    // false when there was no such user to delete
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
+    @Timed(TIMER)
+    public boolean delById(String id, Long version) {
+        boolean deleted;
+        if (userPartitionService.isPartitioned()) {
+            deleted = userPartitionService.remove(id, version);
+        } else {
+            Criteria criteria = where("id").is(id);
+            if (version != null) {
+                criteria.and("version").is(version);
+            }
+            deleted = userReadRouting.write(ops -> ops.remove(query(criteria), User.class)).getDeletedCount() > 0;
+        }
+        if (deleted) {
+            usersRevision.advance(id);
+        }
+        return deleted;
+    }
+
+    // bulk import: unordered insertMany per batch, a failed item never fails its batch
+    @Timed(TIMER)
+    public BulkImportResult importUsers(UserBulkReader reader) throws IOException {
+        int batchSize = userProperties.getBulk().getBatchSize();
+        int maxReportedErrors = userProperties.getBulk().getMaxReportedErrors();
+
+        List<BulkImportResult.ItemError> errors = new ArrayList<>();
+        List<UserBulkReader.Item> batch = new ArrayList<>(batchSize);
+        long received = 0;
+        long inserted = 0;
+        long failed = 0;
+
+        UserBulkReader.Item item;
+        while ((item = reader.next()) != null) {
+            received++;
+            if (item.failed()) {
+                failed++;
+                addError(errors, maxReportedErrors, item.index(), item.error());
+                continue;
+            }
+            batch.add(item);
+            if (batch.size() == batchSize) {
+                int batchInserted = insertBatch(batch, errors, maxReportedErrors);
+                inserted += batchInserted;
+                failed += batch.size() - batchInserted;
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            int batchInserted = insertBatch(batch, errors, maxReportedErrors);
+            inserted += batchInserted;
+            failed += batch.size() - batchInserted;
+        }
+        usersRevision.advance();
+        return new BulkImportResult(received, inserted, failed, errors);
+    }
+
+    private int insertBatch(List<UserBulkReader.Item> batch,
+                            List<BulkImportResult.ItemError> errors, int maxReportedErrors) {
+        List<User> users = new ArrayList<>(batch.size());
+        for (UserBulkReader.Item item : batch) {
+            User user = item.user();
+            // known ids, so the bloom filters can take the users without reading them back
+            if (user.getId() == null) {
+                user.setId(new ObjectId().toHexString());
+            }
+            users.add(user);
+        }
+        // one unordered insertMany per partition, error indexes are mapped back to the batch
+        List<List<Integer>> groups = userPartitionService.groupByPartition(users.stream().map(User::getId).toList());
+        int inserted = 0;
+        try {
+            for (int partition = 0; partition < groups.size(); partition++) {
+                List<Integer> group = groups.get(partition);
+                if (group.isEmpty()) {
+                    continue;
+                }
+                try {
+                    inserted += userPartitionService.partition(partition)
+                            .bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)
+                            .insert(group.stream().map(users::get).toList())
+                            .execute()
+                            .getInsertedCount();
+                } catch (BulkOperationException e) {
+                    for (BulkWriteError error : e.getErrors()) {
+                        addError(errors, maxReportedErrors, batch.get(group.get(error.getIndex())).index(),
+                                error.getMessage());
+                    }
+                    // unordered: every item without a write error was inserted
+                    inserted += group.size() - e.getErrors().size();
+                }
+            }
+            return inserted;
+        } finally {
+            // a failed item only costs a false "maybe"
+            users.forEach(userBloomFilterService::add);
+        }
+    }
+
+    private static Update replacementOf(User user) {
+        return new Update()
+                .set("name", user.getName())
+                .set("code", user.getCode())
+                .set("description", user.getDescription())
+                .inc("version", 1);
+    }
+
+    private static void includeFields(Query query, Set<UserField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return;
+        }
+        for (UserField field : fields) {
+            query.fields().include(field.getProperty());
+        }
+    }
+
+    private DistributionSummary resultSize(String operation) {
+        return DistributionSummary.builder("users.result.size")
+                .description("Number of users returned by one UserService read")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static void addError(List<BulkImportResult.ItemError> errors, int maxReportedErrors,
+                                 int index, String message) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new BulkImportResult.ItemError(index, message));
+        }
+    }
+
+    //  reactive variants, non-blocking end to end on the reactive Mongo driver;
+    //  they share the users cache with the blocking methods above
+
+    public Flux<User> streamAllReactive() {
+        if (userPartitionService.isPartitioned()) {
+            return userPartitionService.streamAllReactive();
+        }
+        return reactiveMongoOperations.findAll(User.class);
+    }
+
+    public Flux<User> searchReactive(String text) {
+        if (userPartitionService.isPartitioned()) {
+            return userPartitionService.searchReactive(text);
+        }
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore();
+        return reactiveMongoOperations.find(query, User.class);
+    }
+
+    public Mono<User> getByIdReactive(String id) {
+        Cache cache = usersCache();
+        return Mono.justOrEmpty(cache.get(id, User.class))
+                .switchIfEmpty(Mono.defer(() -> {
+                    if (!userBloomFilterService.mightContainId(id)) {
+                        return Mono.empty();
+                    }
+                    long revision = usersRevision.revisionOf(id);
+                    return findOneReactive(id).doOnNext(user -> cacheLoaded(id, user, revision));
+                }));
+    }
+
+    public Mono<User> createReactive(User user) {
+        if (user.getId() == null && userPartitionService.isPartitioned()) {
+            // the id picks the partition, so it is known before the insert
+            user.setId(new ObjectId().toHexString());
+        }
+        return writeReactive(user.getId(), ops -> ops.save(user))
+                .doOnNext(saved -> {
+                    usersRevision.advance(saved.getId());
+                    usersCache().put(saved.getId(), saved);
+                    userBloomFilterService.add(saved);
+                });
+    }
+
+    public Mono<User> updateReactive(User user) {
+        if (user.getId() == null && userPartitionService.isPartitioned()) {
+            user.setId(new ObjectId().toHexString());
+        }
+        Mono<User> updated = writeReactive(user.getId(), ops -> user.getId() == null || user.getVersion() != null
+                ? ops.save(user)
+                : ops.findAndModify(query(where("id").is(user.getId())), replacementOf(user),
+                        FindAndModifyOptions.options().returnNew(true).upsert(true), User.class));
+        return updated.doOnNext(saved -> {
+            usersRevision.advance(saved.getId());
+            usersCache().put(saved.getId(), saved);
+            userBloomFilterService.add(saved);
+        });
+    }
+
+    public Mono<Void> delByIdReactive(String id) {
+        Mono<?> removed = userPartitionService.isPartitioned()
+                ? userPartitionService.removeReactive(id)
+                : reactiveMongoOperations.remove(query(where("id").is(id)), User.class);
+        return removed
+                .doOnSuccess(result -> {
+                    usersRevision.advance(id);
+                    usersCache().evict(id);
+                })
+                .then();
+    }
+
+    private Mono<User> findOneReactive(String id) {
+        return userPartitionService.isPartitioned()
+                ? userPartitionService.findByIdReactive(id)
+                : reactiveMongoOperations.findById(id, User.class);
+    }
+
+    private Mono<User> writeReactive(String id, Function<ReactiveMongoOperations, Mono<User>> write) {
+        return userPartitionService.isPartitioned()
+                ? userPartitionService.forWriteReactive(id).flatMap(write)
+                : write.apply(reactiveMongoOperations);
+    }
+
+    private Cache usersCache() {
+        return cacheManager.getCache(CacheConfig.USERS);
     }
 }
@@ -0,0 +1,249 @@
+package edu.chorn.myproject.service;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserWriteBehindService
+    @version 1.0.0
+    @since 18.10.2026 - 21.30
+*/
+
+import com.mongodb.bulk.BulkWriteError;
+import edu.chorn.myproject.config.CacheConfig;
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.util.CoalescingQueue;
+import edu.chorn.myproject.util.CollectionRevision;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// optional write-behind for unversioned creates and updates: writes are queued per id
+// and flushed by one thread as unordered bulk upserts, by size or after the flush interval
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserWriteBehindService {
+
+    private final UserRepository userRepository;
+    private final MongoOperations mongoOperations;
+    private final CacheManager cacheManager;
+    private final UserProperties userProperties;
+    private final MeterRegistry meterRegistry;
+    private final CollectionRevision usersRevision;
+    private final UserBloomFilterService userBloomFilterService;
+    private final UserPartitionService userPartitionService;
+
+    private CoalescingQueue<String, User> queue;
+    private Thread flusher;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void start() {
+        UserProperties.WriteBehind config = userProperties.getWriteBehind();
+        if (!config.isEnabled()) {
+            return;
+        }
+        queue = new CoalescingQueue<>(config.getCapacity(), config.getBatchSize());
+        meterRegistry.gauge("users.write-behind.queued", queue, CoalescingQueue::size);
+        flushTimer = Timer.builder("users.write-behind.flush")
+                .description("One bulk flush of queued user writes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        flusher = new Thread(this::flushLoop, "user-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // whatever is still queued is flushed before the context goes away
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (queue == null) {
+            return;
+        }
+        queue.close();
+        flusher.join(userProperties.getWriteBehind().getAckTimeout().toMillis());
+    }
+
+    // versioned writes stay synchronous, their conflicts have to reach the caller
+    public boolean accepts(User user) {
+        return queue != null && user.getVersion() == null;
+    }
+
+    public boolean isDurable() {
+        return userProperties.getWriteBehind().getDurability() == UserProperties.WriteBehind.Durability.FLUSHED;
+    }
+
+    // ACCEPTED returns once the write is queued, FLUSHED once it is in Mongo;
+    // a full queue throws RejectedExecutionException
+    public User write(User user) {
+        if (user.getId() == null) {
+            user.setId(new ObjectId().toHexString());
+        }
+        String id = user.getId();
+        // reads through the users cache see the queued value right away; cached before it is
+        // queued, so the flush that takes it is the last to touch its cache entry
+        usersRevision.advance(id);
+        usersCache().put(id, user);
+        CompletableFuture<User> flushed;
+        try {
+            flushed = queue.offer(id, user);
+        } catch (RejectedExecutionException e) {
+            if (!queue.contains(id)) {
+                usersCache().evict(id);
+            }
+            throw e;
+        }
+        if (!isDurable()) {
+            return user;
+        }
+
+        Duration ackTimeout = userProperties.getWriteBehind().getAckTimeout();
+        try {
+            return flushed.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new TransientDataAccessResourceException("User " + id + " was not flushed within " + ackTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransientDataAccessResourceException("Interrupted while waiting for the flush of user " + id);
+        }
+    }
+
+    private void flushLoop() {
+        long interval = userProperties.getWriteBehind().getFlushInterval().toNanos();
+        while (!queue.isDrained()) {
+            List<CoalescingQueue.Entry<String, User>> batch = queue.drain(interval, TimeUnit.NANOSECONDS);
+            if (!batch.isEmpty()) {
+                flushTimer.record(() -> flush(batch));
+            }
+        }
+    }
+
+    private void flush(List<CoalescingQueue.Entry<String, User>> batch) {
+        // same last-writer-wins upsert as UserService.update without a version, one bulk per partition
+        List<List<Integer>> groups = userPartitionService.groupByPartition(
+                batch.stream().map(CoalescingQueue.Entry::key).toList());
+        Set<Integer> failed = new HashSet<>();
+        try {
+            for (int partition = 0; partition < groups.size(); partition++) {
+                List<Integer> group = groups.get(partition);
+                if (!group.isEmpty()) {
+                    flush(batch, group, partition, failed);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush of {} users failed", batch.size(), e);
+            batch.forEach(entry -> fail(entry, e));
+            return;
+        }
+
+        usersRevision.advance();
+
+        List<CoalescingQueue.Entry<String, User>> written = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed.contains(i)) {
+                written.add(batch.get(i));
+                userBloomFilterService.add(batch.get(i).key(), batch.get(i).value().getName());
+            }
+        }
+        if (isDurable()) {
+            // the waiting callers get the stored user, version included
+            Map<String, User> stored = new HashMap<>();
+            List<String> ids = written.stream().map(CoalescingQueue.Entry::key).toList();
+            (userPartitionService.isPartitioned() ? userPartitionService.findAllById(ids) : userRepository.findAllById(ids))
+                    .forEach(user -> stored.put(user.getId(), user));
+            for (CoalescingQueue.Entry<String, User> entry : written) {
+                User user = stored.getOrDefault(entry.key(), entry.value());
+                if (!queue.contains(entry.key())) {
+                    usersCache().put(entry.key(), user);
+                }
+                entry.done().complete(user);
+            }
+        } else {
+            // the cached copy has no version yet, the next read loads the stored one
+            for (CoalescingQueue.Entry<String, User> entry : written) {
+                if (!queue.contains(entry.key())) {
+                    usersCache().evict(entry.key());
+                }
+                entry.done().complete(entry.value());
+            }
+        }
+    }
+
+    private void flush(List<CoalescingQueue.Entry<String, User>> batch, List<Integer> group, int partition,
+                       Set<Integer> failed) {
+        MongoOperations target = userPartitionService.isPartitioned()
+                ? userPartitionService.partition(partition)
+                : mongoOperations;
+        BulkOperations bulk = target.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (int index : group) {
+            CoalescingQueue.Entry<String, User> entry = batch.get(index);
+            User user = entry.value();
+            if (userPartitionService.isPartitioned()) {
+                // moves the user over first while a rebalance is pending
+                userPartitionService.forWrite(entry.key());
+            }
+            bulk.upsert(query(where("id").is(entry.key())), new Update()
+                    .set("name", user.getName())
+                    .set("code", user.getCode())
+                    .set("description", user.getDescription())
+                    .inc("version", 1));
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                int index = group.get(error.getIndex());
+                failed.add(index);
+                fail(batch.get(index), new DataIntegrityViolationException(error.getMessage()));
+            }
+        }
+    }
+
+    private void fail(CoalescingQueue.Entry<String, User> entry, RuntimeException cause) {
+        if (!queue.contains(entry.key())) {
+            usersCache().evict(entry.key());
+        }
+        entry.done().completeExceptionally(cause);
+    }
+
+    private Cache usersCache() {
+        return cacheManager.getCache(CacheConfig.USERS);
+    }
+}
@@ -0,0 +1,125 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class BatchLoader
+    @version 1.0.0
+    @since 19.10.2026 - 10.45
+*/
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// collects single-key loads for one window (or until maxBatchSize keys are waiting)
+// and runs them as one multi-key load; a key missing from the result loads as null.
+// The loads run on the callers' threads: the caller that opens a batch waits out the window
+// and loads it, the caller that fills a batch loads it at once, so a slow load only holds
+// up the callers of its own batch
+public class BatchLoader<K, V> implements Closeable {
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Function<Set<K>, Map<K, V>> loader;
+    private final Consumer<Integer> batchSizes;
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private boolean closed;
+
+    public BatchLoader(Duration window, int maxBatchSize,
+                       Function<Set<K>, Map<K, V>> loader, Consumer<Integer> batchSizes) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.loader = loader;
+        this.batchSizes = batchSizes;
+    }
+
+    // blocks until the batch of the key is loaded
+    public V load(K key) {
+        CompletableFuture<V> future;
+        Map<K, CompletableFuture<V>> opened = null;
+        Map<K, CompletableFuture<V>> full = null;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Batch loader is closed");
+            }
+            future = pending.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(key, future);
+                if (pending.size() >= maxBatchSize) {
+                    full = take();
+                } else if (pending.size() == 1) {
+                    opened = pending;
+                }
+            }
+        }
+        if (full != null) {
+            run(full);
+        } else if (opened != null) {
+            Map<K, CompletableFuture<V>> batch = awaitWindow(opened);
+            if (batch != null) {
+                run(batch);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // the batch once its window is over, null when a caller that filled it has taken it
+    private Map<K, CompletableFuture<V>> awaitWindow(Map<K, CompletableFuture<V>> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        synchronized (lock) {
+            try {
+                for (long left = windowNanos; pending == batch && left > 0; left = deadline - System.nanoTime()) {
+                    lock.wait(left / 1_000_000, (int) (left % 1_000_000));
+                }
+            } catch (InterruptedException e) {
+                // loads right away instead
+                Thread.currentThread().interrupt();
+            }
+            return pending == batch ? take() : null;
+        }
+    }
+
+    // call with the lock held
+    private Map<K, CompletableFuture<V>> take() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        lock.notifyAll();
+        return batch;
+    }
+
+    private void run(Map<K, CompletableFuture<V>> batch) {
+        batchSizes.accept(batch.size());
+        try {
+            Map<K, V> loaded = loader.apply(batch.keySet());
+            batch.forEach((key, future) -> future.complete(loaded.get(key)));
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            pending.values().forEach(future -> future.completeExceptionally(
+                    new IllegalStateException("Batch loader is closed")));
+            take();
+        }
+    }
+}
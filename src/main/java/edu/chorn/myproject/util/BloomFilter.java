@@ -0,0 +1,62 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class BloomFilter
+    @version 1.0.0
+    @since 19.10.2026 - 15.10
+*/
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter over strings, safe for concurrent adds and reads. There is no removal:
+// a removed key stays a "maybe" (one wasted lookup) until the filter is rebuilt
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray(Math.toIntExact(bitCount / Long.SIZE));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    // sized for the expected number of keys at the given false positive rate
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        long keys = Math.max(1, expectedKeys);
+        double bits = -keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long bitCount = Math.max(Long.SIZE, ((long) Math.ceil(bits) + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / keys * Math.log(2)));
+        return new BloomFilter(bitCount, hashCount);
+    }
+
+    public void add(String key) {
+        long hash1 = Hashes.hash64(key);
+        long hash2 = Hashes.mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            long mask = 1L << bit;
+            words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    // false means the key was never added
+    public boolean mightContain(String key) {
+        long hash1 = Hashes.hash64(key);
+        long hash2 = Hashes.mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+}
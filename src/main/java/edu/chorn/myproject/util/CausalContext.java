@@ -0,0 +1,77 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class CausalContext
+    @version 1.0.0
+    @since 19.10.2026 - 18.40
+*/
+
+import org.bson.BsonTimestamp;
+
+import java.util.function.Consumer;
+
+// the operation time one client has seen, bound to the thread of its request: reads wait for
+// it on a secondary, writes move it on and hand it back to the client
+public final class CausalContext {
+
+    private static final ThreadLocal<CausalContext> CURRENT = new ThreadLocal<>();
+
+    private final Consumer<BsonTimestamp> onAdvance;
+    private BsonTimestamp operationTime;
+
+    private CausalContext(BsonTimestamp operationTime, Consumer<BsonTimestamp> onAdvance) {
+        this.operationTime = operationTime;
+        this.onAdvance = onAdvance;
+    }
+
+    public static CausalContext open(BsonTimestamp operationTime, Consumer<BsonTimestamp> onAdvance) {
+        CausalContext context = new CausalContext(operationTime, onAdvance);
+        CURRENT.set(context);
+        return context;
+    }
+
+    // null outside a request, streamed and write-behind work included
+    public static CausalContext current() {
+        return CURRENT.get();
+    }
+
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    public BsonTimestamp getOperationTime() {
+        return operationTime;
+    }
+
+    // keeps the later of the two times
+    public void advance(BsonTimestamp time) {
+        if (time == null || operationTime != null && operationTime.compareTo(time) >= 0) {
+            return;
+        }
+        operationTime = time;
+        onAdvance.accept(time);
+    }
+
+    // "seconds.increment", the format of format(); blank is no time
+    public static BsonTimestamp parse(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        try {
+            if (dot < 0) {
+                throw new NumberFormatException();
+            }
+            return new BsonTimestamp(Integer.parseUnsignedInt(token.substring(0, dot)),
+                    Integer.parseUnsignedInt(token.substring(dot + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed operation time: " + token);
+        }
+    }
+
+    public static String format(BsonTimestamp time) {
+        return Integer.toUnsignedString(time.getTime()) + "." + Integer.toUnsignedString(time.getInc());
+    }
+}
@@ -0,0 +1,127 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class CoalescingQueue
+    @version 1.0.0
+    @since 18.10.2026 - 21.05
+*/
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// bounded FIFO of pending writes, a second write of the same key replaces the queued value
+// in place and shares its future, so every caller is completed by the one flush of the key
+public class CoalescingQueue<K, V> {
+
+    public record Entry<K, V>(K key, V value, CompletableFuture<V> done) {
+    }
+
+    private final int capacity;
+    private final int batchSize;
+    private final LinkedHashMap<K, Entry<K, V>> entries = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private boolean closed;
+
+    public CoalescingQueue(int capacity, int batchSize) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+    }
+
+    // throws RejectedExecutionException when the queue is full or closed
+    public CompletableFuture<V> offer(K key, V value) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("Queue is closed");
+            }
+            Entry<K, V> queued = entries.get(key);
+            if (queued != null) {
+                entries.put(key, new Entry<>(key, value, queued.done()));
+                return queued.done();
+            }
+            if (entries.size() >= capacity) {
+                throw new RejectedExecutionException("Queue is full (" + capacity + " pending writes)");
+            }
+            Entry<K, V> entry = new Entry<>(key, value, new CompletableFuture<>());
+            entries.put(key, entry);
+            if (entries.size() >= batchSize) {
+                batchReady.signal();
+            }
+            return entry.done();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // waits until a full batch is queued, the timeout passes or the queue is closed,
+    // then takes up to batchSize entries in arrival order
+    public List<Entry<K, V>> drain(long timeout, TimeUnit unit) {
+        lock.lock();
+        try {
+            long remaining = unit.toNanos(timeout);
+            while (!closed && entries.size() < batchSize && remaining > 0) {
+                remaining = batchReady.awaitNanos(remaining);
+            }
+            List<Entry<K, V>> batch = new ArrayList<>(Math.min(entries.size(), batchSize));
+            Iterator<Entry<K, V>> iterator = entries.values().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(K key) {
+        lock.lock();
+        try {
+            return entries.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // no new writes, the queued ones can still be drained
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            batchReady.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isDrained() {
+        lock.lock();
+        try {
+            return closed && entries.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
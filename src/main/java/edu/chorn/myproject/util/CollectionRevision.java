@@ -0,0 +1,65 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class CollectionRevision
+    @version 1.0.0
+    @since 19.10.2026 - 10.05
+*/
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// write counter of one collection, advanced after every write that is known to this process;
+// its weak ETag covers every list read of the collection without looking at the data.
+// The epoch keeps a tag of another process, or of an earlier run, from ever matching.
+// Only sound when every write is known here, i.e. with the change stream on.
+// Per id it tells a cache fill whether the id was written while it loaded (see revisionOf).
+public class CollectionRevision {
+
+    private static final int STRIPES = 1024;
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong revision = new AtomicLong();
+    // writes of many or unknown ids, and writes of single ids by the stripe of the id
+    private final AtomicLong wholeCollection = new AtomicLong();
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+    // start of this process until its first write: no write it never saw can be later
+    private final AtomicLong lastModified = new AtomicLong(System.currentTimeMillis());
+
+    // a write of any number of users
+    public void advance() {
+        wholeCollection.incrementAndGet();
+        revision.incrementAndGet();
+        lastModified.accumulateAndGet(System.currentTimeMillis(), Math::max);
+    }
+
+    // a write of one user; call it after the write and before the cache is updated
+    public void advance(String id) {
+        stripes.incrementAndGet(stripeOf(id));
+        revision.incrementAndGet();
+        lastModified.accumulateAndGet(System.currentTimeMillis(), Math::max);
+    }
+
+    // changes with every write of the id (and, sharing its stripe, of some others): a value
+    // loaded while it stayed the same may be cached, otherwise the writer's cache update wins
+    public long revisionOf(String id) {
+        return wholeCollection.get() + stripes.get(stripeOf(id));
+    }
+
+    private static int stripeOf(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    // epoch millis of the latest write known, never moves back
+    public long lastModified() {
+        return lastModified.get();
+    }
+
+    // read it before the data: a write in between then only costs a 200 instead of a stale 304
+    public String eTag() {
+        return "W/\"" + epoch + "." + revision.get() + "\"";
+    }
+}
@@ -0,0 +1,48 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class Hashes
+    @version 1.0.0
+    @since 19.10.2026 - 17.05
+*/
+
+// fast, well mixed 64-bit hashes of keys, stable across processes and restarts
+public final class Hashes {
+
+    private Hashes() {
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 mixer
+    public static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // jump consistent hash (Lamping, Veach): going from n to n + 1 buckets moves only 1/(n + 1)
+    // of the keys, and only into the new bucket
+    public static int jump(long hash, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            hash = hash * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((hash >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
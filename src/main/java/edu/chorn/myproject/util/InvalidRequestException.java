@@ -0,0 +1,18 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class InvalidRequestException
+    @version 1.0.0
+    @since 20.10.2026 - 19.50
+*/
+
+// a request the client has to change, the controller answers it with a 400;
+// any other exception stays a server error
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,149 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class MongoSnapshotStore
+    @version 1.0.0
+    @since 18.10.2026 - 22.40
+*/
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// dumps every collection of one database to a file and loads it back,
+// one line per document: {"c": collection, "d": document} in extended JSON (types survive)
+@Slf4j
+public class MongoSnapshotStore implements Closeable {
+
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+    private static final int LOAD_BATCH = 1000;
+
+    private final MongoClient client;
+    private final MongoDatabase database;
+    private final Path file;
+    private ScheduledExecutorService scheduler;
+
+    public MongoSnapshotStore(ConnectionString connectionString, Path file) {
+        this.client = MongoClients.create(connectionString);
+        this.database = client.getDatabase(connectionString.getDatabase());
+        this.file = file;
+    }
+
+    public long load() {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long loaded = 0;
+        String collection = null;
+        List<Document> batch = new ArrayList<>(LOAD_BATCH);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Document entry = Document.parse(line);
+                String entryCollection = entry.getString("c");
+                if (!entryCollection.equals(collection) || batch.size() == LOAD_BATCH) {
+                    loaded += insert(collection, batch);
+                    collection = entryCollection;
+                }
+                batch.add(entry.get("d", Document.class));
+            }
+            loaded += insert(collection, batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read snapshot " + file, e);
+        }
+        log.info("Loaded {} documents from snapshot {}", loaded, file);
+        return loaded;
+    }
+
+    // written next to the target and moved over it, a crash never leaves half a snapshot
+    public synchronized long save() {
+        long saved = 0;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (String name : database.listCollectionNames()) {
+                    for (Document document : database.getCollection(name).find()) {
+                        writer.write(new Document("c", name).append("d", document).toJson(JSON));
+                        writer.newLine();
+                        saved++;
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot " + file, e);
+        }
+        log.debug("Saved {} documents to snapshot {}", saved, file);
+        return saved;
+    }
+
+    public void saveEvery(Duration interval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mongo-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                save();
+            } catch (RuntimeException e) {
+                // the next run tries again, the previous snapshot stays in place
+                log.error("Snapshot to {} failed", file, e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            save();
+        } finally {
+            client.close();
+        }
+    }
+
+    private long insert(String collection, List<Document> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        MongoCollection<Document> target = database.getCollection(collection);
+        target.insertMany(batch);
+        int inserted = batch.size();
+        batch.clear();
+        return inserted;
+    }
+}
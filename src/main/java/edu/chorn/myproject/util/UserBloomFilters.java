@@ -0,0 +1,46 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserBloomFilters
+    @version 1.0.0
+    @since 20.10.2026 - 09.15
+*/
+
+// the live id and name filters and the ones being rebuilt, published as one value: an add
+// that read any state writes into every filter that state will hand over to, so a swap
+// never drops it
+public record UserBloomFilters(BloomFilter ids, BloomFilter names, BloomFilter buildingIds,
+                               BloomFilter buildingNames) {
+
+    // no build done yet, every key "might exist"
+    public static final UserBloomFilters NONE = new UserBloomFilters(null, null, null, null);
+
+    public UserBloomFilters building(BloomFilter nextIds, BloomFilter nextNames) {
+        return new UserBloomFilters(ids, names, nextIds, nextNames);
+    }
+
+    // the filters being built go live
+    public UserBloomFilters built() {
+        return new UserBloomFilters(buildingIds, buildingNames, null, null);
+    }
+
+    // a failed build leaves the live filters as they were
+    public UserBloomFilters abandoned() {
+        return new UserBloomFilters(ids, names, null, null);
+    }
+
+    public void add(String id, String name) {
+        addTo(ids, id);
+        addTo(names, name);
+        addTo(buildingIds, id);
+        addTo(buildingNames, name);
+    }
+
+    private static void addTo(BloomFilter filter, String key) {
+        if (filter != null && key != null) {
+            filter.add(key);
+        }
+    }
+}
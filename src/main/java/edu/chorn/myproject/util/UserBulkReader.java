@@ -0,0 +1,142 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserBulkReader
+    @version 1.0.0
+    @since 18.10.2026 - 12.10
+*/
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.chorn.myproject.model.User;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+// reads users one by one from a JSON (or Smile, CBOR) array or an NDJSON body,
+// a broken item becomes an error item instead of failing the whole body
+public abstract class UserBulkReader implements Closeable {
+
+    public record Item(int index, User user, String error) {
+
+        public boolean failed() {
+            return error != null;
+        }
+    }
+
+    protected final ObjectMapper objectMapper;
+    protected int index;
+
+    protected UserBulkReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public static UserBulkReader jsonArray(ObjectMapper objectMapper, InputStream in) throws IOException {
+        return new JsonArrayReader(objectMapper, objectMapper.createParser(in));
+    }
+
+    public static UserBulkReader ndjson(ObjectMapper objectMapper, InputStream in) {
+        return new NdjsonReader(objectMapper,
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    // next item or null when the body is exhausted
+    public abstract Item next() throws IOException;
+
+    protected Item toItem(JsonNode node) {
+        int current = index++;
+        if (!node.isObject()) {
+            return new Item(current, null, "expected a JSON object but got " + node.getNodeType());
+        }
+        try {
+            return new Item(current, objectMapper.treeToValue(node, User.class), null);
+        } catch (JsonProcessingException e) {
+            return new Item(current, null, e.getOriginalMessage());
+        }
+    }
+
+    private static class JsonArrayReader extends UserBulkReader {
+
+        private final JsonParser parser;
+        private boolean started;
+        private boolean done;
+
+        JsonArrayReader(ObjectMapper objectMapper, JsonParser parser) {
+            super(objectMapper);
+            this.parser = parser;
+        }
+
+        @Override
+        public Item next() throws IOException {
+            if (done) {
+                return null;
+            }
+            try {
+                if (!started) {
+                    started = true;
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        done = true;
+                        return new Item(index, null, "expected a JSON array of users");
+                    }
+                }
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    done = true;
+                    return null;
+                }
+                return toItem(objectMapper.readTree(parser));
+            } catch (JsonProcessingException e) {
+                // the rest of the body can not be read reliably after a syntax error
+                done = true;
+                return new Item(index, null, "malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    private static class NdjsonReader extends UserBulkReader {
+
+        private final BufferedReader reader;
+
+        NdjsonReader(ObjectMapper objectMapper, BufferedReader reader) {
+            super(objectMapper);
+            this.reader = reader;
+        }
+
+        @Override
+        public Item next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            try {
+                return toItem(objectMapper.readTree(line));
+            } catch (JsonProcessingException e) {
+                // one bad line does not break the following ones
+                return new Item(index++, null, "malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
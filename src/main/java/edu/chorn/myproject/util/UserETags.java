@@ -0,0 +1,39 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserETags
+    @version 1.0.0
+    @since 19.10.2026 - 10.20
+*/
+
+import edu.chorn.myproject.model.User;
+
+// strong ETag of one user is its version, "3" for version 3
+public final class UserETags {
+
+    public static final String ANY = "*";
+
+    private UserETags() {
+    }
+
+    // null for a user without a version (written before versioning)
+    public static String of(User user) {
+        return user == null || user.getVersion() == null ? null : "\"" + user.getVersion() + "\"";
+    }
+
+    // version named by an If-Match header, null when it names none (weak, malformed or a list);
+    // a weak tag never matches for If-Match
+    public static Long versionOf(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserIds
+    @version 1.0.0
+    @since 20.10.2026 - 16.40
+*/
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// _id order of the users collection. Spring stores an id that is a valid ObjectId as an ObjectId
+// and any other id as a string, so the id itself tells its BSON type; Mongo sorts by type first,
+// every string id before every ObjectId, and a $gt only matches ids of the type it is given
+public final class UserIds {
+
+    // the _id order of a partition, for merging partitions: type first, then string ids by their
+    // UTF-8 bytes and ObjectIds by theirs (hex in any case)
+    public static final Comparator<String> ORDER = UserIds::compare;
+
+    private UserIds() {
+    }
+
+    public static boolean isObjectId(String id) {
+        return ObjectId.isValid(id);
+    }
+
+    public static int compare(String first, String second) {
+        boolean firstObjectId = isObjectId(first);
+        if (firstObjectId != isObjectId(second)) {
+            return firstObjectId ? 1 : -1;
+        }
+        if (firstObjectId) {
+            return new ObjectId(first).compareTo(new ObjectId(second));
+        }
+        return Arrays.compareUnsigned(first.getBytes(StandardCharsets.UTF_8), second.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ids after the cursor in _id order: past a string id, all ObjectIds still follow
+    public static Criteria after(String cursor) {
+        if (isObjectId(cursor)) {
+            return where("id").gt(cursor);
+        }
+        return new Criteria().orOperator(
+                where("id").gt(cursor),
+                where("id").type(JsonSchemaObject.Type.OBJECT_ID));
+    }
+}
@@ -0,0 +1,109 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserPartitions
+    @version 1.0.0
+    @since 19.10.2026 - 17.20
+*/
+
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+// the databases the user collection is spread over, partition 0 is spring.data.mongodb's own;
+// a user lives in the partition the jump consistent hash of its id picks
+public class UserPartitions implements Closeable {
+
+    private final List<MongoOperations> partitions;
+    // the same databases on the reactive driver, empty when there is one partition only
+    private final List<ReactiveMongoOperations> reactivePartitions;
+    private final List<String> names;
+    private final int previousCount;
+    // clients opened for partitions on other servers
+    private final List<? extends Closeable> clients;
+    private volatile boolean rebalanced;
+
+    public UserPartitions(List<MongoOperations> partitions, List<String> names, Integer previousCount,
+                          List<? extends Closeable> clients) {
+        this(partitions, List.of(), names, previousCount, clients);
+    }
+
+    public UserPartitions(List<MongoOperations> partitions, List<ReactiveMongoOperations> reactivePartitions,
+                          List<String> names, Integer previousCount, List<? extends Closeable> clients) {
+        this.partitions = List.copyOf(partitions);
+        this.reactivePartitions = List.copyOf(reactivePartitions);
+        this.names = List.copyOf(names);
+        this.previousCount = previousCount == null ? partitions.size() : previousCount;
+        this.clients = clients;
+    }
+
+    public static UserPartitions single(MongoOperations mongoOperations, String name) {
+        return new UserPartitions(List.of(mongoOperations), List.of(name), null, List.of());
+    }
+
+    public boolean isPartitioned() {
+        return partitions.size() > 1;
+    }
+
+    public int size() {
+        return partitions.size();
+    }
+
+    public MongoOperations get(int partition) {
+        return partitions.get(partition);
+    }
+
+    public ReactiveMongoOperations getReactive(int partition) {
+        if (reactivePartitions.isEmpty()) {
+            throw new IllegalStateException("User partitions have no reactive templates");
+        }
+        return reactivePartitions.get(partition);
+    }
+
+    public List<ReactiveMongoOperations> allReactive() {
+        return reactivePartitions;
+    }
+
+    public String name(int partition) {
+        return names.get(partition);
+    }
+
+    public List<MongoOperations> all() {
+        return partitions;
+    }
+
+    public int partitionOf(String id) {
+        return Hashes.jump(Hashes.hash64(id), partitions.size());
+    }
+
+    // where the id lived before the last partitions were added
+    public int previousPartitionOf(String id) {
+        return Hashes.jump(Hashes.hash64(id), previousCount);
+    }
+
+    public Integer getPreviousCount() {
+        return previousCount == partitions.size() ? null : previousCount;
+    }
+
+    // partitions were added and not all users have been moved yet: a user may still be
+    // found where it was before, reads fall back to it and writes move it first
+    public boolean isRebalancing() {
+        return previousCount != partitions.size() && !rebalanced;
+    }
+
+    public void markRebalanced() {
+        rebalanced = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Closeable client : clients) {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package edu.chorn.myproject.util;
+
+/*
+    @author chorn
+    @project myproject
+    @class UserReadRouting
+    @version 1.0.0
+    @since 19.10.2026 - 18.55
+*/
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// reads of UserService go to secondaries, each read path with its own staleness bound;
+// within a CausalContext reads and writes run in causally consistent sessions, so a client
+// that sends back the operation time of its write reads it on any secondary
+@Slf4j
+public class UserReadRouting {
+
+    public enum Path { LIST, BY_ID, SEARCH }
+
+    private static final ClientSessionOptions CAUSAL = ClientSessionOptions.builder()
+            .causallyConsistent(true)
+            .build();
+
+    private final MongoOperations mongoOperations;
+    private final MongoClient mongoClient;
+    // empty when reads stay on the primary
+    private final Map<Path, ReadPreference> preferences;
+    private final boolean causal;
+    private final AtomicBoolean sessionsMissing = new AtomicBoolean();
+
+    public UserReadRouting(MongoOperations mongoOperations, MongoClient mongoClient,
+                           Map<Path, ReadPreference> preferences, boolean causal) {
+        this.mongoOperations = mongoOperations;
+        this.mongoClient = mongoClient;
+        this.preferences = preferences.isEmpty() ? Map.of() : new EnumMap<>(preferences);
+        this.causal = causal;
+    }
+
+    public static UserReadRouting primary(MongoOperations mongoOperations) {
+        return new UserReadRouting(mongoOperations, null, Map.of(), false);
+    }
+
+    // mode is a read preference name, a null staleness puts no bound on the lag
+    public static ReadPreference preference(String mode, Duration maxStaleness) {
+        if (maxStaleness == null) {
+            return ReadPreference.valueOf(mode);
+        }
+        return ReadPreference.valueOf(mode, List.of(), maxStaleness.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    public boolean isEnabled() {
+        return !preferences.isEmpty();
+    }
+
+    public boolean isCausal() {
+        return causal;
+    }
+
+    public ReadPreference preferenceOf(Path path) {
+        return preferences.getOrDefault(path, ReadPreference.primary());
+    }
+
+    public <T> T read(Path path, Query query, BiFunction<MongoOperations, Query, T> read) {
+        if (isEnabled()) {
+            query.withReadPreference(preferenceOf(path));
+        }
+        CausalContext context = CausalContext.current();
+        if (context == null || context.getOperationTime() == null) {
+            return read.apply(mongoOperations, query);
+        }
+        try (ClientSession session = startSession()) {
+            if (session == null) {
+                return read.apply(mongoOperations, query);
+            }
+            // afterClusterTime: the secondary answers once it has applied the client's write
+            session.advanceOperationTime(context.getOperationTime());
+            query.withReadConcern(ReadConcern.MAJORITY);
+            return read.apply(mongoOperations.withSession(session), query);
+        }
+    }
+
+    // writes always go to the primary, the operation time is handed to the context
+    public <T> T write(Function<MongoOperations, T> write) {
+        CausalContext context = CausalContext.current();
+        if (context == null) {
+            return write.apply(mongoOperations);
+        }
+        try (ClientSession session = startSession()) {
+            if (session == null) {
+                return write.apply(mongoOperations);
+            }
+            T result = write.apply(mongoOperations.withSession(session));
+            context.advance(session.getOperationTime());
+            return result;
+        }
+    }
+
+    // null without session support (a standalone server), reads then lose read-your-writes
+    private ClientSession startSession() {
+        if (!causal) {
+            return null;
+        }
+        if (mongoClient.getClusterDescription().getLogicalSessionTimeoutMinutes() == null) {
+            if (sessionsMissing.compareAndSet(false, true)) {
+                log.warn("MongoDB reports no session support, reads after writes may be stale");
+            }
+            return null;
+        }
+        return mongoClient.startSession(CAUSAL);
+    }
+}
@@ -0,0 +1,158 @@
+package edu.chorn.myproject;
+
+/*
+    @author chorn
+    @project myproject
+    @class BulkReaderTests
+    @version 1.0.0
+    @since 20.10.2026 - 14.20
+*/
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.util.UserBulkReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkReaderTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldReadEveryUserOfAJsonArray() throws IOException {
+
+        // given
+        String body = """
+                [{"id": "1", "name": "Ozzy Osbourne", "code": "BS", "description": "##test"},
+                 {"name": "Ronnie James Dio", "code": "BS"}]""";
+
+        // when
+        List<UserBulkReader.Item> items = readAll(UserBulkReader.jsonArray(objectMapper, bytes(body)));
+
+        // then
+        assertEquals(2, items.size());
+        assertEquals("1", items.get(0).user().getId());
+        assertEquals("Ozzy Osbourne", items.get(0).user().getName());
+        assertNull(items.get(1).user().getId());
+        assertEquals(1, items.get(1).index());
+        assertTrue(items.stream().noneMatch(UserBulkReader.Item::failed));
+    }
+
+    @Test
+    void shouldReadNdjsonLineByLineSkippingBlankOnes() throws IOException {
+
+        // given
+        String body = """
+                {"id": "1", "name": "Ozzy Osbourne", "code": "BS"}
+
+                {"id": "2", "name": "Ronnie James Dio", "code": "BS"}
+                """;
+
+        // when
+        List<UserBulkReader.Item> items = readAll(UserBulkReader.ndjson(objectMapper, bytes(body)));
+
+        // then
+        assertEquals(List.of("1", "2"), items.stream().map(item -> item.user().getId()).toList());
+        assertEquals(List.of(0, 1), items.stream().map(UserBulkReader.Item::index).toList());
+    }
+
+    @Test
+    void shouldReportMalformedNdjsonLinesAndReadOnAfterThem() throws IOException {
+
+        // given
+        String body = """
+                {"id": "1", "name": "Ozzy Osbourne"}
+                {"id": "2", "name":
+                [1, 2]
+                {"id": "3", "name": "Ronnie James Dio"}
+                """;
+
+        // when
+        List<UserBulkReader.Item> items = readAll(UserBulkReader.ndjson(objectMapper, bytes(body)));
+
+        // then
+        assertEquals(4, items.size());
+        assertFalse(items.get(0).failed());
+        assertTrue(items.get(1).error().startsWith("malformed JSON"));
+        assertEquals(1, items.get(1).index());
+        assertEquals("expected a JSON object but got ARRAY", items.get(2).error());
+        assertEquals("3", items.get(3).user().getId());
+        assertEquals(3, items.get(3).index());
+    }
+
+    @Test
+    void shouldStopAJsonArrayAtASyntaxError() throws IOException {
+
+        // given
+        String body = """
+                [{"id": "1", "name": "Ozzy Osbourne"}, "Dio", {"id": "3", "name": }, {"id": "4"}]""";
+
+        // when
+        List<UserBulkReader.Item> items = readAll(UserBulkReader.jsonArray(objectMapper, bytes(body)));
+
+        // then
+        assertEquals(3, items.size());
+        assertFalse(items.get(0).failed());
+        assertEquals("expected a JSON object but got STRING", items.get(1).error());
+        assertTrue(items.get(2).error().startsWith("malformed JSON"));
+        assertEquals(2, items.get(2).index());
+    }
+
+    @Test
+    void shouldRefuseABodyThatIsNoArray() throws IOException {
+
+        // when
+        List<UserBulkReader.Item> items = readAll(UserBulkReader.jsonArray(objectMapper,
+                bytes("{\"id\": \"1\"}")));
+
+        // then
+        assertEquals(1, items.size());
+        assertEquals("expected a JSON array of users", items.get(0).error());
+    }
+
+    @Test
+    void shouldReadSmileAndCborArrays() throws IOException {
+
+        // given
+        ObjectMapper smile = objectMapper.copyWith(new SmileFactory());
+        ObjectMapper cbor = objectMapper.copyWith(new CBORFactory());
+        List<User> users = List.of(new User("1", "Ozzy Osbourne", "BS", "##test"),
+                new User("2", "Ronnie James Dio", "BS", "##test"));
+
+        // when
+        List<UserBulkReader.Item> fromSmile = readAll(UserBulkReader.jsonArray(smile,
+                new ByteArrayInputStream(smile.writeValueAsBytes(users))));
+        List<UserBulkReader.Item> fromCbor = readAll(UserBulkReader.jsonArray(cbor,
+                new ByteArrayInputStream(cbor.writeValueAsBytes(users))));
+
+        // then
+        for (List<UserBulkReader.Item> items : List.of(fromSmile, fromCbor)) {
+            assertEquals(List.of("1", "2"), items.stream().map(item -> item.user().getId()).toList());
+            assertEquals("Ronnie James Dio", items.get(1).user().getName());
+        }
+    }
+
+    private static List<UserBulkReader.Item> readAll(UserBulkReader reader) throws IOException {
+        List<UserBulkReader.Item> items = new ArrayList<>();
+        try (reader) {
+            UserBulkReader.Item item;
+            while ((item = reader.next()) != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private static ByteArrayInputStream bytes(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,189 @@
+package edu.chorn.myproject;
+
+/*
+    @author chorn
+    @project myproject
+    @class ControllerTests
+    @version 1.0.0
+    @since 20.10.2026 - 19.20
+*/
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.chorn.myproject.model.User;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ControllerTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void shouldTagAUserWithItsVersionAndAnswerAMatchingIfNoneMatchWith304() throws Exception {
+
+        // given
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "Freddie Mercury", "QUEEN", "##test"));
+        String eTag = "\"" + user.getVersion() + "\"";
+
+        // when
+        mockMvc.perform(get("/api/v1/users/{id}", user.getId()))
+
+                // then
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(jsonPath("$.name").value("Freddie Mercury"));
+        mockMvc.perform(get("/api/v1/users/{id}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/v1/users/{id}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"99\""))
+                .andExpect(status().isOk());
+        mongoOperations.remove(user);
+    }
+
+    @Test
+    void shouldRefuseAPutAtAStaleVersionWith412() throws Exception {
+
+        // given
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "Brian May", "QUEEN", "##test"));
+        User edit = new User(user.getId(), "Brian Harold May", "QUEEN", "##test");
+
+        // when
+        mockMvc.perform(put("/api/v1/users/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"" + (user.getVersion() + 1) + "\"")
+                        .content(objectMapper.writeValueAsString(edit)))
+
+                // then
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("Brian May", mongoOperations.findById(user.getId(), User.class).getName());
+        mockMvc.perform(put("/api/v1/users/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"" + user.getVersion() + "\"")
+                        .content(objectMapper.writeValueAsString(edit)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (user.getVersion() + 1) + "\""));
+        mongoOperations.remove(user);
+    }
+
+    @Test
+    void shouldRefuseADeleteAtAStaleVersionWith412() throws Exception {
+
+        // given
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "Roger Taylor", "QUEEN", "##test"));
+
+        // when
+        mockMvc.perform(delete("/api/v1/users/{id}", user.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (user.getVersion() + 1) + "\""))
+
+                // then
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/v1/users/{id}", user.getId()).header(HttpHeaders.IF_MATCH, "W/\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        assertTrue(mongoOperations.exists(query(where("id").is(user.getId())), User.class));
+        mockMvc.perform(delete("/api/v1/users/{id}", user.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + user.getVersion() + "\""))
+                .andExpect(status().isOk());
+        assertFalse(mongoOperations.exists(query(where("id").is(user.getId())), User.class));
+    }
+
+    @Test
+    void shouldRefuseIfMatchAnyForAMissingUser() throws Exception {
+
+        // given
+        String id = new ObjectId().toHexString();
+        User user = new User(id, "John Deacon", "QUEEN", "##test");
+
+        // when
+        mockMvc.perform(put("/api/v1/users/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .content(objectMapper.writeValueAsString(user)))
+
+                // then
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/v1/users/{id}", id).header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isPreconditionFailed());
+        assertFalse(mongoOperations.exists(query(where("id").is(id)), User.class));
+    }
+
+    @Test
+    void shouldAnswerAnUnchangedListWith304UntilAWrite() throws Exception {
+
+        // given
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "Freddie Mercury", "QUEEN", "##test"));
+        MvcResult first = settledList();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(eTag);
+        assertNotNull(lastModified);
+
+        // when
+        mockMvc.perform(get("/api/v1/users/").header(HttpHeaders.IF_NONE_MATCH, eTag))
+
+                // then
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/v1/users/").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(delete("/api/v1/users/{id}", user.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/users/").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void shouldAnswerAMultiGetOverTheLimitWith400() throws Exception {
+
+        // given
+        Map<String, Object> request = Map.of("ids", Collections.nCopies(1001, "1"));
+
+        // when
+        mockMvc.perform(post("/api/v1/users/_mget")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+
+                // then
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("At most 1000 ids per request, got 1001"));
+    }
+
+    // the change stream advances the list revision after a write, too; wait until it has caught up
+    private MvcResult settledList() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/users/")).andExpect(status().isOk()).andReturn();
+        for (int i = 0; i < 50; i++) {
+            Thread.sleep(100);
+            MvcResult next = mockMvc.perform(get("/api/v1/users/")).andExpect(status().isOk()).andReturn();
+            if (next.getResponse().getHeader(HttpHeaders.ETAG).equals(result.getResponse().getHeader(HttpHeaders.ETAG))) {
+                return next;
+            }
+            result = next;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,307 @@
+package edu.chorn.myproject;
+
+/*
+    @author chorn
+    @project myproject
+    @class EngineTests
+    @version 1.0.0
+    @since 19.10.2026 - 00.20
+*/
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Updates;
+import com.mongodb.ConnectionString;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.AbstractMongoCollection;
+import de.bwaldvogel.mongo.backend.Index;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import edu.chorn.myproject.engine.HashIndex;
+import edu.chorn.myproject.engine.IndexedMemoryBackend;
+import edu.chorn.myproject.engine.MappedLogBackend;
+import edu.chorn.myproject.engine.MappedRecordLog;
+import edu.chorn.myproject.engine.SubstringIndex;
+import edu.chorn.myproject.util.MongoSnapshotStore;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayRecordLogAfterReopen() {
+
+        // given
+        Path file = directory.resolve("users.log");
+        try (MappedRecordLog recordLog = MappedRecordLog.open(file, false)) {
+            int freddy = recordLog.allocateSlot();
+            int paul = recordLog.allocateSlot();
+            recordLog.put(freddy, utf8("Freddy Mercury"));
+            recordLog.put(paul, utf8("Paul McCartney"));
+            recordLog.put(freddy, utf8("Freddie Mercury"));
+            recordLog.delete(paul);
+        }
+
+        // when
+        try (MappedRecordLog reopened = MappedRecordLog.open(file, false)) {
+
+            // then
+            assertEquals(1, reopened.size());
+            assertEquals("Freddie Mercury", text(reopened.read(0)));
+            assertNull(reopened.read(1));
+            assertEquals(1, reopened.allocateSlot());
+        }
+    }
+
+    @Test
+    void shouldCutOffTornRecordOnRecovery() throws IOException {
+
+        // given
+        Path file = directory.resolve("users.log");
+        long tornAt;
+        try (MappedRecordLog recordLog = MappedRecordLog.open(file, false)) {
+            recordLog.put(recordLog.allocateSlot(), utf8("Mick Jagger"));
+            tornAt = recordLog.fileSize();
+            recordLog.put(recordLog.allocateSlot(), utf8("Keith Richards"));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            // payload of the second record, right behind its 13 byte header
+            raw.seek(tornAt + 13);
+            raw.write("Kxxxx".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // when
+        try (MappedRecordLog recovered = MappedRecordLog.open(file, false)) {
+
+            // then
+            assertEquals(1, recovered.size());
+            assertEquals(tornAt, recovered.fileSize());
+            assertEquals("Mick Jagger", text(recovered.read(0)));
+        }
+    }
+
+    @Test
+    void shouldKeepSlotsWhenCompacting() {
+
+        // given
+        try (MappedRecordLog recordLog = MappedRecordLog.open(directory.resolve("users.log"), false)) {
+            int slot = recordLog.allocateSlot();
+            for (int i = 0; i < 100; i++) {
+                recordLog.put(slot, utf8("version " + i));
+            }
+            long before = recordLog.fileSize();
+
+            // when
+            recordLog.compact();
+
+            // then
+            assertTrue(recordLog.fileSize() < before);
+            assertEquals(0, recordLog.garbageRatio());
+            assertEquals("version 99", text(recordLog.read(slot)));
+        }
+    }
+
+    @Test
+    void shouldRecoverCollectionsAndIndexesAfterRestart() {
+
+        // given
+        withEngine(users -> {
+            users.createIndex(Indexes.ascending("code"), new IndexOptions().unique(true));
+            users.insertOne(new Document("name", "Freddy Mercury").append("code", "Queen"));
+            users.insertOne(new Document("name", "Paul McCartney").append("code", "Beatles"));
+            users.updateOne(Filters.eq("code", "Queen"), Updates.set("name", "Freddie Mercury"));
+        });
+
+        // when / then
+        withEngine(users -> {
+            assertEquals(2, users.countDocuments());
+            assertEquals("Freddie Mercury", users.find(Filters.eq("code", "Queen")).first().getString("name"));
+            assertEquals(2, users.listIndexes().into(new ArrayList<>()).size());
+            assertThrows(RuntimeException.class, () -> users.insertOne(new Document("code", "Beatles")));
+        });
+    }
+
+    @Test
+    void shouldRebuildSecondaryIndexesFromTheLogsAfterRestart() {
+
+        // given
+        withEngine(users -> {
+            users.createIndex(Indexes.ascending("code"));
+            users.insertOne(new Document("name", "Freddie Mercury").append("code", "Queen")
+                    .append("description", "Bohemian Rhapsody"));
+            users.insertOne(new Document("name", "Paul McCartney").append("code", "Beatles")
+                    .append("description", "Yesterday"));
+            users.deleteOne(Filters.eq("code", "Beatles"));
+            users.insertOne(new Document("name", "Brian May").append("code", "Queen")
+                    .append("description", "Brighton Rock"));
+        });
+
+        // when / then
+        withEngine((backend, users) -> {
+            AbstractMongoCollection<?> collection = (AbstractMongoCollection<?>) backend.resolveDatabase("test")
+                    .resolveCollection("user", true);
+            Index<?> code = collection.getIndexes().stream().filter(HashIndex.class::isInstance).findFirst().orElseThrow();
+            Index<?> description = collection.getIndexes().stream().filter(SubstringIndex.class::isInstance)
+                    .findFirst().orElseThrow();
+            assertEquals(2, code.getCount());
+            assertEquals(2, description.getCount());
+            assertEquals(List.of("Freddie Mercury", "Brian May"), names(users.find(Filters.eq("code", "Queen"))));
+            assertEquals(List.of(), names(users.find(Filters.eq("code", "Beatles"))));
+            assertEquals(List.of("Brian May"), names(users.find(Filters.regex("description", ".*\\Qton Ro\\E.*"))));
+        });
+    }
+
+    @Test
+    void shouldRestoreSnapshotWithTypesIntact() {
+
+        // given
+        Path file = directory.resolve("users.snapshot");
+        Document freddie = new Document("_id", new ObjectId())
+                .append("name", "Freddie Mercury")
+                .append("version", 3L)
+                .append("born", new Date(-734486400000L))
+                .append("fee", Decimal128.parse("1.10"))
+                .append("bands", List.of(new Document("code", "Queen")));
+        Document paul = new Document("_id", "not-an-object-id").append("name", "Paul McCartney");
+        Document export = new Document("_id", new ObjectId()).append("state", "DONE");
+        long saved = withSnapshotStore(file, (store, database) -> {
+            database.getCollection("user").insertMany(List.of(freddie, paul));
+            database.getCollection("user_exports").insertOne(export);
+            return store.save();
+        });
+
+        // when
+        List<Object> restored = withSnapshotStore(file, (store, database) -> List.of(store.load(),
+                database.getCollection("user").find(Filters.eq("_id", freddie.getObjectId("_id"))).first(),
+                database.getCollection("user").find(Filters.eq("_id", "not-an-object-id")).first(),
+                database.getCollection("user_exports").countDocuments()));
+
+        // then
+        assertEquals(3, saved);
+        assertEquals(3L, restored.get(0));
+        assertEquals(freddie, restored.get(1));
+        assertEquals(paul, restored.get(2));
+        assertEquals(1L, restored.get(3));
+    }
+
+    @Test
+    void shouldFindThroughHashAndSubstringIndexes() {
+
+        // given
+        IndexedMemoryBackend backend = new IndexedMemoryBackend(List.of("user.description"));
+        MongoServer server = new MongoServer(backend);
+        InetSocketAddress address = server.bind();
+        try (MongoClient client = MongoClients.create("mongodb://localhost:" + address.getPort())) {
+            MongoCollection<Document> users = client.getDatabase("test").getCollection("user");
+            users.createIndex(Indexes.ascending("code"));
+            users.insertMany(List.of(
+                    new Document("name", "Freddie Mercury").append("code", "Queen").append("description", "Bohemian Rhapsody"),
+                    new Document("name", "Brian May").append("code", "Queen").append("description", "Brighton Rock"),
+                    new Document("name", "Paul McCartney").append("code", "Beatles").append("description", "Yesterday")));
+
+            // when
+            users.updateOne(Filters.eq("name", "Brian May"), Updates.combine(
+                    Updates.set("code", "Solo"), Updates.set("description", "Back to the Light")));
+            users.deleteOne(Filters.eq("name", "Paul McCartney"));
+            AbstractMongoCollection<?> collection = (AbstractMongoCollection<?>) backend.resolveDatabase("test")
+                    .resolveCollection("user", true);
+            Index<?> code = collection.getIndexes().stream().filter(HashIndex.class::isInstance).findFirst().orElseThrow();
+            Index<?> description = collection.getIndexes().stream().filter(SubstringIndex.class::isInstance)
+                    .findFirst().orElseThrow();
+
+            // then
+            assertEquals(List.of("Freddie Mercury"), names(users.find(Filters.eq("code", "Queen"))));
+            assertEquals(List.of("Brian May"), names(users.find(Filters.eq("code", "Solo"))));
+            assertEquals(List.of(), names(users.find(Filters.eq("code", "Beatles"))));
+            assertEquals(List.of("Brian May"), names(users.find(Filters.regex("description", ".*\\Qto the\\E.*"))));
+            assertEquals(List.of(), names(users.find(Filters.regex("description", "Rock"))));
+            assertEquals(List.of("Freddie Mercury"), names(users.find(Filters.regex("description", Pattern.compile("rhap",
+                    Pattern.CASE_INSENSITIVE)))));
+            assertEquals(2, code.getCount());
+            assertEquals(2, description.getCount());
+            assertTrue(code.canHandle(new de.bwaldvogel.mongo.bson.Document("code", "Queen")));
+            assertEquals(1, count(code.getPositions(new de.bwaldvogel.mongo.bson.Document("code", "Queen"))));
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    // a fresh engine each time, so a load only sees what the snapshot brought back
+    private <T> T withSnapshotStore(Path file, BiFunction<MongoSnapshotStore, MongoDatabase, T> test) {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        ConnectionString connectionString = new ConnectionString("mongodb://localhost:" + address.getPort() + "/test");
+        MongoSnapshotStore store = new MongoSnapshotStore(connectionString, file);
+        try (MongoClient client = MongoClients.create(connectionString)) {
+            return test.apply(store, client.getDatabase("test"));
+        } finally {
+            store.close();
+            server.shutdownNow();
+        }
+    }
+
+    private void withEngine(Consumer<MongoCollection<Document>> test) {
+        withEngine((backend, users) -> test.accept(users));
+    }
+
+    private void withEngine(BiConsumer<MappedLogBackend, MongoCollection<Document>> test) {
+        MappedLogBackend backend = new MappedLogBackend(directory, false, Duration.ofMinutes(1), 0.5,
+                List.of("user.description"));
+        MongoServer server = new MongoServer(backend);
+        InetSocketAddress address = server.bind();
+        try (MongoClient client = MongoClients.create("mongodb://localhost:" + address.getPort())) {
+            test.accept(backend, client.getDatabase("test").getCollection("user"));
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    private static List<String> names(Iterable<Document> users) {
+        List<String> names = new ArrayList<>();
+        users.forEach(user -> names.add(user.getString("name")));
+        return names;
+    }
+
+    private static int count(Iterable<?> positions) {
+        int count = 0;
+        for (Object ignored : positions) {
+            count++;
+        }
+        return count;
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+}
@@ -0,0 +1,127 @@
+package edu.chorn.myproject;
+
+/*
+    @author chorn
+    @project myproject
+    @class LimiterTests
+    @version 1.0.0
+    @since 20.10.2026 - 10.30
+*/
+
+import edu.chorn.myproject.config.ConcurrencyLimitInterceptor;
+import edu.chorn.myproject.util.AdaptiveLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimiterTests {
+
+    @Test
+    void shouldRejectOverTheLimitUntilAPermitIsReleased() {
+
+        // given
+        AdaptiveLimiter underTest = new AdaptiveLimiter("read", 2, 1, 10);
+
+        // when
+        boolean first = underTest.tryAcquire();
+        boolean second = underTest.tryAcquire();
+        boolean third = underTest.tryAcquire();
+        underTest.release(TimeUnit.MILLISECONDS.toNanos(1));
+        boolean afterRelease = underTest.tryAcquire();
+
+        // then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertTrue(afterRelease);
+        assertEquals(1, underTest.getRejected());
+        assertEquals(2, underTest.getInFlight());
+    }
+
+    @Test
+    void shouldGrowWhileLatencyHoldsAndShrinkWhenItRises() {
+
+        // given
+        AdaptiveLimiter underTest = new AdaptiveLimiter("read", 10, 1, 200);
+
+        // when
+        saturate(underTest, 50, TimeUnit.MILLISECONDS.toNanos(1));
+        int grown = underTest.getLimit();
+        saturate(underTest, 2, TimeUnit.MILLISECONDS.toNanos(20));
+        int shrunk = underTest.getLimit();
+
+        // then
+        assertTrue(grown > 10, "limit " + grown);
+        assertTrue(shrunk < grown, "limit " + shrunk + " after " + grown);
+        assertEquals(0, underTest.getInFlight());
+    }
+
+    @Test
+    void shouldShedWithServiceUnavailableOverTheLimit() throws Exception {
+
+        // given
+        AdaptiveLimiter reads = new AdaptiveLimiter("read", 1, 1, 1);
+        AdaptiveLimiter writes = new AdaptiveLimiter("write", 1, 1, 1);
+        ConcurrencyLimitInterceptor underTest = new ConcurrencyLimitInterceptor(reads, writes);
+        MockHttpServletRequest holding = new MockHttpServletRequest("GET", "/api/v1/users/");
+        MockHttpServletRequest shed = new MockHttpServletRequest("GET", "/api/v1/users/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        boolean admitted = underTest.preHandle(holding, new MockHttpServletResponse(), null);
+        boolean rejected = !underTest.preHandle(shed, response, null);
+        boolean writeAdmitted = underTest.preHandle(new MockHttpServletRequest("PUT", "/api/v1/users/1"),
+                new MockHttpServletResponse(), null);
+
+        // then
+        assertTrue(admitted);
+        assertTrue(rejected);
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(writeAdmitted);
+        assertEquals(1, reads.getRejected());
+    }
+
+    @Test
+    void shouldReleaseBulkRequestsWithoutALatencySample() throws Exception {
+
+        // given
+        AdaptiveLimiter reads = new AdaptiveLimiter("read", 10, 1, 10);
+        AdaptiveLimiter writes = new AdaptiveLimiter("write", 10, 1, 10);
+        ConcurrencyLimitInterceptor underTest = new ConcurrencyLimitInterceptor(reads, writes);
+        MockHttpServletRequest bulk = new MockHttpServletRequest("POST", "/api/v1/users/_bulk");
+        MockHttpServletRequest put = new MockHttpServletRequest("PUT", "/api/v1/users/1");
+
+        // when
+        underTest.preHandle(bulk, new MockHttpServletResponse(), null);
+        Thread.sleep(5);
+        underTest.afterCompletion(bulk, new MockHttpServletResponse(), null, null);
+        double afterBulk = writes.getRttMillis();
+        underTest.preHandle(put, new MockHttpServletResponse(), null);
+        Thread.sleep(5);
+        underTest.afterCompletion(put, new MockHttpServletResponse(), null, null);
+
+        // then
+        assertEquals(0, afterBulk);
+        assertTrue(writes.getRttMillis() > 0);
+        assertEquals(0, writes.getInFlight());
+    }
+
+    // takes every permit there is, then gives them all back with the same latency
+    private static void saturate(AdaptiveLimiter limiter, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+}
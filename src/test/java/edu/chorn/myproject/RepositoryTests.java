@@ -8,19 +8,25 @@ package edu.chorn.myproject;
     @since 24.04.2025 - 12.45
 */
 
+import edu.chorn.myproject.config.InMemoryMongoConfig;
 import edu.chorn.myproject.model.User;
 import edu.chorn.myproject.repository.UserRepository;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @DataMongoTest
+@Import(InMemoryMongoConfig.class)
 public class RepositoryTests {
 
     @Autowired
@@ -143,6 +149,22 @@ public class RepositoryTests {
         assertEquals(savedUser.getId(), updatedUser.getId());
     }
 
+    @Test
+    void shouldRejectUpdateWithStaleVersion() {
+
+        // given
+        User savedUser = underTest.save(new User("Layne Staley", "AliceInChains", "##test"));
+        User staleCopy = new User(savedUser.getId(), savedUser.getName(), savedUser.getCode(), "##test");
+        staleCopy.setVersion(savedUser.getVersion());
+        savedUser.setCode("MadSeason");
+        underTest.save(savedUser);
+
+        // when / then
+        staleCopy.setCode("Stale");
+        assertThrows(OptimisticLockingFailureException.class, () -> underTest.save(staleCopy));
+        assertEquals("MadSeason", underTest.findById(savedUser.getId()).orElseThrow().getCode());
+    }
+
     @Test
     void shouldDeleteUserById() {
 
@@ -191,6 +213,21 @@ public class RepositoryTests {
         assertEquals(2, users.size());
     }
 
+    @Test
+    void shouldFindUsersByCodeQuery() {
+
+        // given
+        underTest.save(new User("Axl Rose", "GunsNRoses", "##test"));
+        underTest.save(new User("Slash", "GunsNRoses", "##test"));
+
+        // when
+        List<User> users = underTest.findByCode("GunsNRoses");
+
+        // then
+        assertEquals(2, users.size());
+        assertTrue(users.stream().allMatch(user -> user.getCode().equals("GunsNRoses")));
+    }
+
     @Test
     void shouldReturnEmptyListWhenNoUsersMatchCode() {
 
@@ -265,6 +302,60 @@ public class RepositoryTests {
         assertTrue(users.isEmpty());
     }
 
+    @Test
+    void shouldReturnFirstPageOrderedById() {
+
+        // when
+        List<User> users = underTest.findAllByOrderByIdAsc(Limit.of(2));
+
+        // then
+        assertEquals(2, users.size());
+        assertEquals("1", users.get(0).getId());
+        assertEquals("2", users.get(1).getId());
+    }
+
+    @Test
+    void shouldReturnNextPageAfterCursor() {
+
+        // when
+        List<User> users = underTest.findByIdGreaterThanOrderByIdAsc("2", Limit.of(1));
+
+        // then
+        assertEquals(1, users.size());
+        assertEquals("3", users.get(0).getId());
+    }
+
+    @Test
+    void shouldPageFromStringIdsOnToObjectIds() {
+
+        // given: Mongo sorts the string ids "1".."3" before every ObjectId
+        User john = underTest.save(new User("John Lennon", "Beatles", "##test"));
+        User george = underTest.save(new User("George Harrison", "Beatles", "##test"));
+
+        // when
+        List<User> afterString = underTest.findAfterStringIdOrderByIdAsc("2", Limit.of(2));
+        List<User> afterLastString = underTest.findAfterStringIdOrderByIdAsc("3", Limit.of(2));
+        List<User> afterObjectId = underTest.findByIdGreaterThanOrderByIdAsc(john.getId(), Limit.of(2));
+
+        // then
+        assertEquals(List.of("3", john.getId()), afterString.stream().map(User::getId).toList());
+        assertEquals(List.of(john.getId(), george.getId()), afterLastString.stream().map(User::getId).toList());
+        assertEquals(List.of(george.getId()), afterObjectId.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldStreamAllUsers() {
+
+        // when
+        long count;
+        try (Stream<User> users = underTest.streamAllBy()) {
+            count = users.count();
+        }
+
+        // then
+        assertEquals(underTest.count(), count);
+    }
+
     void printAllUsersToConsole() {
 
         List<User> users = underTest.findAll();
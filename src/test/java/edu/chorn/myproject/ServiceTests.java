@@ -0,0 +1,1303 @@
+package edu.chorn.myproject;
+
+/*
+    @author chorn
+    @project myproject
+    @class ServiceTests
+    @version 1.0.0
+    @since 18.10.2026 - 11.20
+*/
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import edu.chorn.myproject.config.CacheConfig;
+import edu.chorn.myproject.config.UserProperties;
+import edu.chorn.myproject.dto.BulkImportResult;
+import edu.chorn.myproject.dto.UserChange;
+import edu.chorn.myproject.dto.UserExportRange;
+import edu.chorn.myproject.dto.UserExportState;
+import edu.chorn.myproject.dto.UserExportStatus;
+import edu.chorn.myproject.dto.UserField;
+import edu.chorn.myproject.dto.UserMultiGetResult;
+import edu.chorn.myproject.dto.UserPage;
+import edu.chorn.myproject.dto.UserPatch;
+import edu.chorn.myproject.model.SeedVersion;
+import edu.chorn.myproject.model.User;
+import edu.chorn.myproject.model.UserExport;
+import edu.chorn.myproject.repository.UserExportRepository;
+import edu.chorn.myproject.repository.UserRepository;
+import edu.chorn.myproject.service.UserBloomFilterService;
+import edu.chorn.myproject.service.UserChangeService;
+import edu.chorn.myproject.service.UserExportService;
+import edu.chorn.myproject.service.UserIndexService;
+import edu.chorn.myproject.service.UserPartitionService;
+import edu.chorn.myproject.service.UserSeedService;
+import edu.chorn.myproject.service.UserService;
+import edu.chorn.myproject.service.UserWriteBehindService;
+import edu.chorn.myproject.util.BatchLoader;
+import edu.chorn.myproject.util.CausalContext;
+import edu.chorn.myproject.util.CollectionRevision;
+import edu.chorn.myproject.util.Hashes;
+import edu.chorn.myproject.util.InvalidRequestException;
+import edu.chorn.myproject.util.UserBulkReader;
+import edu.chorn.myproject.util.UserIds;
+import edu.chorn.myproject.util.UserPartitions;
+import edu.chorn.myproject.util.UserReadRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@SpringBootTest
+public class ServiceTests {
+
+    @MockitoBean
+    UserRepository userRepository;
+
+    @Autowired
+    UserService underTest;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    UserIndexService userIndexService;
+
+    @Autowired
+    MongoOperations mongoOperations;
+
+    @Autowired
+    ReactiveMongoOperations reactiveMongoOperations;
+
+    @Autowired
+    UserChangeService userChangeService;
+
+    @Autowired
+    UserBloomFilterService userBloomFilterService;
+
+    @Autowired
+    UserPartitionService userPartitionService;
+
+    @Autowired
+    MongoClient mongoClient;
+
+    @Autowired
+    com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient;
+
+    @Autowired
+    MongoConverter mongoConverter;
+
+    @Autowired
+    UserExportRepository userExportRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    UserProperties userProperties;
+
+    @Autowired
+    UserSeedService userSeedService;
+
+    @BeforeEach
+    void setUp() {
+
+        cacheManager.getCache(CacheConfig.USERS).clear();
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldServeRepeatedGetByIdFromCache() {
+
+        // given
+        when(userRepository.findById("1"))
+                .thenReturn(Optional.of(new User("1", "Freddy Mercury", "Queen", "##test")));
+
+        // when
+        User first = underTest.getById("1");
+        User second = underTest.getById("1");
+
+        // then
+        assertEquals("Freddy Mercury", first.getName());
+        assertSame(first, second);
+        verify(userRepository, times(1)).findById("1");
+    }
+
+    @Test
+    void shouldShareOneLookupBetweenConcurrentMisses() throws Exception {
+
+        // given
+        when(userRepository.findById("4")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.of(new User("4", "Brian Johnson", "ACDC", "##test"));
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<User>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return underTest.getById("4");
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (Future<User> result : results) {
+            assertEquals("Brian Johnson", result.get(5, TimeUnit.SECONDS).getName());
+        }
+        verify(userRepository, times(1)).findById("4");
+        callers.shutdown();
+    }
+
+    @Test
+    void shouldKeepTheCachedWriteOfAUserUpdatedDuringItsLookup() {
+
+        // given: the update lands while the lookup still holds the old state
+        User before = new User("5", "Bon Scott", "ACDC", "##test");
+        User after = new User("5", "Brian Johnson", "ACDC", "##test");
+        after.setVersion(2L);
+        when(userRepository.findById("5")).thenAnswer(invocation -> {
+            underTest.update(after);
+            return Optional.of(before);
+        });
+
+        // when
+        User looked = underTest.getById("5");
+        User cached = underTest.getById("5");
+
+        // then
+        assertEquals("Bon Scott", looked.getName());
+        assertEquals("Brian Johnson", cached.getName());
+        verify(userRepository, times(1)).findById("5");
+    }
+
+    @Test
+    void shouldLoadABatchOnACallerSoASlowBatchHoldsUpNoOther() throws Exception {
+
+        // given
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlow = new CountDownLatch(1);
+        List<Set<String>> batches = new java.util.concurrent.CopyOnWriteArrayList<>();
+        BatchLoader<String, String> underTest = new BatchLoader<>(Duration.ofMillis(20), 2, keys -> {
+            batches.add(Set.copyOf(keys));
+            if (keys.contains("slow")) {
+                slowStarted.countDown();
+                awaitQuietly(releaseSlow);
+            }
+            Map<String, String> loaded = new java.util.HashMap<>();
+            keys.forEach(key -> loaded.put(key, key.toUpperCase()));
+            return loaded;
+        }, size -> { });
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+
+        // when
+        Future<String> slow = callers.submit(() -> underTest.load("slow"));
+        slowStarted.await(5, TimeUnit.SECONDS);
+        Future<String> first = callers.submit(() -> underTest.load("ozzy"));
+        Future<String> second = callers.submit(() -> underTest.load("dio"));
+        String firstLoaded = first.get(5, TimeUnit.SECONDS);
+        String secondLoaded = second.get(5, TimeUnit.SECONDS);
+        boolean slowDoneMeanwhile = slow.isDone();
+        releaseSlow.countDown();
+
+        // then
+        assertEquals("OZZY", firstLoaded);
+        assertEquals("DIO", secondLoaded);
+        assertFalse(slowDoneMeanwhile);
+        assertEquals("SLOW", slow.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(Set.of("slow"), Set.of("ozzy", "dio")), batches);
+        underTest.close();
+        callers.shutdown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void shouldMultiGetInRequestOrderLoadingOnlyCacheMisses() {
+
+        // given
+        User cached = new User("1", "Freddie Mercury", "QUEEN", "##test");
+        cacheManager.getCache(CacheConfig.USERS).put("1", cached);
+        when(userRepository.findAllById(any())).thenReturn(List.of(new User("2", "Brian May", "QUEEN", "##test")));
+
+        // when
+        UserMultiGetResult result = underTest.getByIds(List.of("2", "404", "1"));
+
+        // then
+        assertEquals(List.of("2", "404", "1"), result.items().stream().map(UserMultiGetResult.Item::id).toList());
+        assertEquals("Brian May", result.items().get(0).user().getName());
+        assertFalse(result.items().get(1).found());
+        assertNull(result.items().get(1).user());
+        assertSame(cached, result.items().get(2).user());
+        assertEquals(2, result.found());
+        assertEquals(1, result.missing());
+        verify(userRepository).findAllById(Set.of("2", "404"));
+    }
+
+    @Test
+    void shouldImportAroundFailedItemsAndReportThemByIndex() throws Exception {
+
+        // given: a taken id in the first batch, broken lines around it
+        mongoOperations.insert(new User("bulk-taken", "Bon Scott", "ACDC", "##test"));
+        String body = String.join("\n",
+                "{\"id\": \"bulk-1\", \"name\": \"Brian Johnson\", \"code\": \"ACDC\"}",
+                "{\"id\": \"bulk-2\", \"name\":",
+                "{\"id\": \"bulk-taken\", \"name\": \"Dave Evans\", \"code\": \"ACDC\"}",
+                "\"Angus Young\"",
+                "{\"id\": \"bulk-3\", \"name\": \"Axl Rose\", \"code\": \"ACDC\"}");
+        UserProperties.Bulk bulk = userProperties.getBulk();
+        int batchSize = bulk.getBatchSize();
+        int maxReportedErrors = bulk.getMaxReportedErrors();
+        bulk.setBatchSize(2);
+        bulk.setMaxReportedErrors(2);
+
+        // when
+        BulkImportResult result;
+        try (UserBulkReader reader = UserBulkReader.ndjson(objectMapper,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))) {
+            result = underTest.importUsers(reader);
+        } finally {
+            bulk.setBatchSize(batchSize);
+            bulk.setMaxReportedErrors(maxReportedErrors);
+        }
+
+        // then
+        assertEquals(5, result.received());
+        assertEquals(2, result.inserted());
+        assertEquals(3, result.failed());
+        assertEquals(List.of(1, 2), result.errors().stream().map(BulkImportResult.ItemError::index).toList());
+        assertEquals("Bon Scott", mongoOperations.findById("bulk-taken", User.class).getName());
+        assertNotNull(mongoOperations.findById("bulk-3", User.class));
+        mongoOperations.remove(new Query(where("id").in("bulk-taken", "bulk-1", "bulk-3")), User.class);
+    }
+
+    @Test
+    void shouldSeedEveryUserOnceWhenInstancesSeedTogether() throws Exception {
+
+        // given
+        ExecutorService instances = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> runs = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            runs.add(instances.submit(() -> {
+                start.await();
+                userSeedService.seed();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> run : runs) {
+            run.get(5, TimeUnit.SECONDS);
+        }
+        instances.shutdown();
+
+        // then
+        for (String code : List.of("000001", "000002", "000003")) {
+            assertEquals(1, mongoOperations.count(new Query(where("code").is(code)), User.class), code);
+            assertEquals(code, mongoOperations.findById("000000000000000000" + code, User.class).getCode());
+        }
+        assertEquals(3, mongoOperations.count(new Query(where("id").in(
+                new ObjectId("000000000000000000000001"), new ObjectId("000000000000000000000002"),
+                new ObjectId("000000000000000000000003"))), User.class));
+        assertTrue(mongoOperations.exists(new Query(where("id").is("users")), SeedVersion.class));
+        mongoOperations.remove(new Query(where("code").in("000001", "000002", "000003")), User.class);
+        mongoOperations.remove(new Query(), SeedVersion.class);
+    }
+
+    @Test
+    void shouldDeleteOnlyAtTheGivenVersion() {
+
+        // given
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "John Deacon", "QUEEN", "##test"));
+        String listETag = underTest.getListETag();
+
+        // when
+        boolean staleDeleted = underTest.delById(user.getId(), user.getVersion() + 1);
+        boolean deleted = underTest.delById(user.getId(), user.getVersion());
+
+        // then
+        assertFalse(staleDeleted);
+        assertTrue(deleted);
+        assertFalse(mongoOperations.exists(query(where("id").is(user.getId())), User.class));
+        assertNotEquals(listETag, underTest.getListETag());
+    }
+
+    @Test
+    void shouldPatchOnlyTheGivenFieldsAndMoveTheVersionOn() {
+
+        // given
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "Brian May", "QUEEN", "##test"));
+
+        // when
+        User patched = underTest.patch(user.getId(), new UserPatch(null, "SMILE", null, null));
+
+        // then
+        User stored = mongoOperations.findById(user.getId(), User.class);
+        assertEquals("SMILE", stored.getCode());
+        assertEquals("Brian May", stored.getName());
+        assertEquals("##test", stored.getDescription());
+        assertEquals(user.getVersion() + 1, stored.getVersion());
+        assertEquals(stored.getVersion(), patched.getVersion());
+        assertEquals("SMILE", patched.getCode());
+        mongoOperations.remove(stored);
+    }
+
+    @Test
+    void shouldPatchAtTheGivenVersionOnly() {
+
+        // given
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "Roger Taylor", "QUEEN", "##test"));
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        // when
+        User patched = underTest.patch(user.getId(), new UserPatch("Roger Meddows Taylor", null, null, user.getVersion()));
+
+        // then
+        assertEquals("Roger Meddows Taylor", patched.getName());
+        assertThrows(OptimisticLockingFailureException.class, () -> underTest.patch(user.getId(),
+                new UserPatch("Roger Taylor", null, null, user.getVersion())));
+        assertEquals("Roger Meddows Taylor", mongoOperations.findById(user.getId(), User.class).getName());
+        mongoOperations.remove(patched);
+    }
+
+    @Test
+    void shouldPatchNothingForAnUnknownId() {
+
+        // given
+        String id = new ObjectId().toHexString();
+
+        // when
+        User patched = underTest.patch(id, new UserPatch("Freddie Mercury", null, null, null));
+        User versioned = underTest.patch(id, new UserPatch("Freddie Mercury", null, null, 0L));
+
+        // then
+        assertNull(patched);
+        assertNull(versioned);
+        assertFalse(mongoOperations.exists(query(where("id").is(id)), User.class));
+    }
+
+    @Test
+    void shouldAnswerAnEmptyPatchWithTheStoredUser() {
+
+        // given
+        User user = new User("2", "Paul McCartney", "Beatles", "##test");
+        user.setVersion(3L);
+        when(userRepository.findById("2")).thenReturn(Optional.of(user));
+
+        // when
+        User patched = underTest.patch("2", new UserPatch(null, null, null, null));
+
+        // then
+        assertSame(user, patched);
+        assertEquals(3L, patched.getVersion());
+        assertFalse(mongoOperations.exists(query(where("id").is("2")), User.class));
+    }
+
+    @Test
+    void shouldTagListsOnlyWhileTheChangeStreamIsOn() throws InterruptedException {
+
+        // given
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "Roger Taylor", "QUEEN", "##test"));
+        long lastModified = underTest.getListLastModified();
+        String withoutStream;
+        userProperties.getChanges().setEnabled(false);
+        try {
+            withoutStream = underTest.getListETag();
+        } finally {
+            userProperties.getChanges().setEnabled(true);
+        }
+
+        // when
+        Thread.sleep(5);
+        underTest.delById(user.getId(), user.getVersion());
+
+        // then
+        assertNull(withoutStream);
+        assertNotNull(underTest.getListETag());
+        assertTrue(underTest.getListLastModified() > lastModified);
+    }
+
+    @Test
+    void shouldRuleOutUnknownIdsAndNamesAfterRebuild() {
+
+        // given
+        User stored = mongoOperations.save(new User(new ObjectId().toHexString(), "Ozzy Osbourne", "SABBATH", "##test"));
+        UserProperties properties = new UserProperties();
+        properties.getBloomFilter().setEnabled(true);
+        properties.getBloomFilter().setFalsePositiveRate(1e-9);
+        properties.getChanges().setEnabled(true);
+        UserBloomFilterService bloomFilter = new UserBloomFilterService(userRepository, mongoOperations,
+                properties, new SimpleMeterRegistry(), userPartitionService);
+
+        // when
+        boolean guessedBeforeBuild = bloomFilter.mightContainId("never-stored");
+        bloomFilter.start();
+        bloomFilter.rebuild();
+        bloomFilter.add("added-later", "Tony Iommi");
+
+        // then
+        assertTrue(guessedBeforeBuild);
+        assertTrue(bloomFilter.mightContainId(stored.getId()));
+        assertTrue(bloomFilter.mightContainName("Ozzy Osbourne"));
+        assertTrue(bloomFilter.mightContainId("added-later"));
+        assertTrue(bloomFilter.mightContainName("Tony Iommi"));
+        assertFalse(bloomFilter.mightContainId("never-stored"));
+        assertFalse(bloomFilter.existsByName("Nobody"));
+        verify(userRepository, never()).existsByName("Nobody");
+        bloomFilter.stop();
+        mongoOperations.remove(stored);
+    }
+
+    @Test
+    void shouldReadThroughAndMoveUsersWhileRebalancing() {
+
+        // given: databases of their own, the moves would show up in the change feed of the default one
+        MongoTemplate first = new MongoTemplate(
+                new SimpleMongoClientDatabaseFactory(mongoClient, "users-partition-test-0"), mongoConverter);
+        MongoTemplate second = new MongoTemplate(
+                new SimpleMongoClientDatabaseFactory(mongoClient, "users-partition-test-1"), mongoConverter);
+        UserPartitions partitions = new UserPartitions(List.of(first, second),
+                List.of("users-partition-test-0", "users-partition-test-1"), 1, List.of());
+        UserPartitionService partitionService = new UserPartitionService(userRepository, partitions,
+                new UserProperties(), new SimpleMeterRegistry());
+        partitionService.start();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(first.save(new User(new ObjectId().toHexString(), "Roger Taylor " + i, "QUEEN" + i, "##test")));
+        }
+        List<String> ids = users.stream().map(User::getId).toList();
+        List<User> misplaced = users.stream().filter(user -> partitions.partitionOf(user.getId()) == 1).toList();
+
+        // when
+        User readBeforeMove = partitionService.findById(misplaced.get(0).getId());
+        boolean rebalanced = partitionService.rebalance();
+
+        // then
+        assertEquals(misplaced.get(0).getName(), readBeforeMove.getName());
+        assertTrue(rebalanced);
+        assertFalse(partitions.isRebalancing());
+        for (User user : misplaced) {
+            assertTrue(second.exists(query(where("id").is(user.getId())), User.class));
+            assertFalse(first.exists(query(where("id").is(user.getId())), User.class));
+        }
+        assertEquals(users.size(), partitionService.findAllById(ids).size());
+        partitionService.stop();
+        first.getDb().drop();
+        second.getDb().drop();
+    }
+
+    @Test
+    void shouldRouteNameChecksAndReactiveCallsOverPartitions() {
+
+        // given
+        MongoTemplate first = partitionTemplate("users-partition-reactive-0");
+        MongoTemplate second = partitionTemplate("users-partition-reactive-1");
+        UserPartitions partitions = new UserPartitions(List.of(first, second),
+                List.of(reactivePartitionTemplate("users-partition-reactive-0"),
+                        reactivePartitionTemplate("users-partition-reactive-1")),
+                List.of("users-partition-reactive-0", "users-partition-reactive-1"), null, List.of());
+        UserPartitionService partitionService = new UserPartitionService(userRepository, partitions,
+                new UserProperties(), new SimpleMeterRegistry());
+        partitionService.start();
+        UserBloomFilterService bloomFilter = new UserBloomFilterService(userRepository, mongoOperations,
+                new UserProperties(), new SimpleMeterRegistry(), partitionService);
+        User inFirst = new User(idInPartition(partitions, 0), "Jon Lord", "PURPLE", "##test");
+        User inSecond = new User(idInPartition(partitions, 1), "Ritchie Blackmore", "RAINBOW", "##test");
+
+        // when
+        for (User user : List.of(inFirst, inSecond)) {
+            partitionService.forWriteReactive(user.getId()).flatMap(ops -> ops.save(user)).block();
+        }
+        User readBack = partitionService.findByIdReactive(inSecond.getId()).block();
+        List<User> all = partitionService.streamAllReactive().collectList().block();
+        boolean nameFound = bloomFilter.existsByName("Ritchie Blackmore");
+        boolean removed = partitionService.removeReactive(inSecond.getId()).block();
+
+        // then
+        assertTrue(first.exists(query(where("id").is(inFirst.getId())), User.class));
+        assertTrue(nameFound);
+        verify(userRepository, never()).existsByName("Ritchie Blackmore");
+        assertFalse(bloomFilter.existsByName("Nobody"));
+        assertEquals("RAINBOW", readBack.getCode());
+        assertEquals(2, all.size());
+        assertTrue(removed);
+        assertFalse(second.exists(query(where("id").is(inSecond.getId())), User.class));
+        partitionService.stop();
+        first.getDb().drop();
+        second.getDb().drop();
+    }
+
+    @Test
+    void shouldNotBringBackAUserDeletedWhileItIsMoved() {
+
+        // given: the user is deleted after the rebalance read it and before its copy is inserted
+        MongoTemplate first = partitionTemplate("users-partition-move-0");
+        String id = new ObjectId().toHexString();
+        while (Hashes.jump(Hashes.hash64(id), 2) != 1) {
+            id = new ObjectId().toHexString();
+        }
+        User user = first.save(new User(id, "Bon Scott", "ACDC", "##test"));
+        MongoTemplate second = new MongoTemplate(
+                new SimpleMongoClientDatabaseFactory(mongoClient, "users-partition-move-1"), mongoConverter) {
+            @Override
+            public <T> T insert(T objectToSave) {
+                first.remove(new Query(where("id").is(user.getId())), User.class);
+                return super.insert(objectToSave);
+            }
+        };
+        UserPartitions partitions = new UserPartitions(List.of(first, second),
+                List.of("users-partition-move-0", "users-partition-move-1"), 1, List.of());
+        UserPartitionService partitionService = new UserPartitionService(userRepository, partitions,
+                new UserProperties(), new SimpleMeterRegistry());
+        partitionService.start();
+
+        // when
+        MongoOperations target = partitionService.forWrite(user.getId());
+
+        // then
+        assertFalse(first.exists(query(where("id").is(user.getId())), User.class));
+        assertFalse(second.exists(query(where("id").is(user.getId())), User.class));
+        assertNull(partitionService.findById(user.getId()));
+        assertSame(second, target);
+        partitionService.stop();
+        first.getDb().drop();
+        second.getDb().drop();
+    }
+
+    @Test
+    void shouldTailEveryPartitionAndResumeEachFromItsPosition() {
+
+        // given
+        MongoTemplate first = partitionTemplate("users-partition-changes-0");
+        MongoTemplate second = partitionTemplate("users-partition-changes-1");
+        UserPartitions partitions = new UserPartitions(List.of(first, second),
+                List.of(reactivePartitionTemplate("users-partition-changes-0"),
+                        reactivePartitionTemplate("users-partition-changes-1")),
+                List.of("users-partition-changes-0", "users-partition-changes-1"), null, List.of());
+        UserPartitionService partitionService = new UserPartitionService(userRepository, partitions,
+                new UserProperties(), new SimpleMeterRegistry());
+        UserChangeService changes = new UserChangeService(userRepository, null, cacheManager, new UserProperties(),
+                new CollectionRevision(), userBloomFilterService, partitionService);
+        // both partitions from a second ago, the form a token has before a partition's first change
+        String opened = "@" + (Instant.now().getEpochSecond() - 1);
+        User inFirst = first.save(new User(idInPartition(partitions, 0), "Angus Young", "ACDC", "##test"));
+        User inSecond = second.save(new User(idInPartition(partitions, 1), "Malcolm Young", "ACDC", "##test"));
+        List<UserChange> delivered = changes.changes(opened + "," + opened).take(2).collectList()
+                .block(Duration.ofSeconds(5));
+        User later = second.save(new User(idInPartition(partitions, 1), "Brian Johnson", "ACDC", "##test"));
+
+        // when
+        UserChange resumed = changes.changes(delivered.get(1).resumeToken()).blockFirst(Duration.ofSeconds(5));
+
+        // then
+        assertEquals(Set.of(inFirst.getId(), inSecond.getId()),
+                Set.of(delivered.get(0).id(), delivered.get(1).id()));
+        assertEquals(2, delivered.get(1).resumeToken().split(",").length);
+        assertEquals(later.getId(), resumed.id());
+        assertThrows(InvalidRequestException.class, () -> changes.changes("one-position-only"));
+        first.getDb().drop();
+        second.getDb().drop();
+    }
+
+    @Test
+    void shouldRouteReadsByPathAndKeepTheLaterOperationTime() {
+
+        // given
+        ReadPreference secondary = UserReadRouting.preference("secondaryPreferred", Duration.ofSeconds(90));
+        UserReadRouting routing = new UserReadRouting(mongoOperations, mongoClient,
+                Map.of(UserReadRouting.Path.BY_ID, secondary), true);
+        User user = new User(new ObjectId().toHexString(), "Ian Gillan", "PURPLE", "##test");
+        List<String> handedOut = new ArrayList<>();
+
+        // when
+        CausalContext context = CausalContext.open(CausalContext.parse("1760000000.7"),
+                time -> handedOut.add(CausalContext.format(time)));
+        User read;
+        try {
+            routing.write(ops -> ops.save(user));
+            read = routing.read(UserReadRouting.Path.BY_ID, query(where("id").is(user.getId())),
+                    (ops, q) -> ops.findOne(q, User.class));
+            context.advance(new BsonTimestamp(1760000000, 3));
+            context.advance(new BsonTimestamp(1760000001, 0));
+        } finally {
+            CausalContext.close();
+        }
+
+        // then
+        assertEquals("Ian Gillan", read.getName());
+        assertEquals(secondary, routing.preferenceOf(UserReadRouting.Path.BY_ID));
+        assertEquals(ReadPreference.primary(), routing.preferenceOf(UserReadRouting.Path.SEARCH));
+        assertEquals(List.of("1760000001.0"), handedOut);
+        assertNull(CausalContext.current());
+        assertThrows(IllegalArgumentException.class, () -> CausalContext.parse("yesterday"));
+        mongoOperations.remove(user);
+    }
+
+    @Test
+    void shouldResumeAnInterruptedExportFromItsFinishedRanges() throws Exception {
+
+        // given
+        User stored = mongoOperations.save(new User(new ObjectId().toHexString(), "Jon Lord", "PURPLE", "##test"));
+        UserProperties properties = new UserProperties();
+        properties.getExport().setDirectory(Files.createTempDirectory("user-export"));
+        properties.getExport().setResumeOnStart(false);
+        UserExport interrupted = new UserExport();
+        interrupted.setId(new ObjectId().toHexString());
+        interrupted.setState(UserExportState.INTERRUPTED);
+        interrupted.setCreatedAt(Instant.now());
+        interrupted.setElapsedMillis(1000);
+        // the first range was finished before the stop, its part is what that run wrote
+        Path partDirectory = Files.createDirectories(properties.getExport().getDirectory().resolve(interrupted.getId()));
+        gzip(partDirectory.resolve("part-00000.ndjson.gz"), "{\"id\":\"exported-before\"}\n");
+        interrupted.setRanges(new ArrayList<>(List.of(
+                UserExportRange.of(0, null, stored.getId()).done(1, 40),
+                UserExportRange.of(0, stored.getId(), null),
+                UserExportRange.otherIds(0))));
+        userExportRepository.save(interrupted);
+        UserExportService exports = new UserExportService(userExportRepository, userPartitionService, objectMapper,
+                properties, new SimpleMeterRegistry());
+        exports.start();
+
+        // when
+        boolean resumed = exports.resume(interrupted.getId());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (exports.status(interrupted.getId()).orElseThrow().state() != UserExportState.DONE
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // then
+        assertTrue(resumed);
+        assertEquals(UserExportState.DONE, exports.status(interrupted.getId()).orElseThrow().state());
+        assertFalse(exports.resume(interrupted.getId()));
+        List<String> lines;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(exports.file(interrupted.getId()).orElseThrow()))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+        assertEquals("{\"id\":\"exported-before\"}", lines.get(0));
+        assertTrue(lines.stream().anyMatch(line -> line.contains(stored.getId())));
+        assertTrue(exports.status(interrupted.getId()).orElseThrow().seconds() >= 1);
+        exports.stop();
+        userExportRepository.deleteById(interrupted.getId());
+        mongoOperations.remove(stored);
+    }
+
+    @Test
+    void shouldSplitAnExportIntoRangesOfRangeUsers() throws Exception {
+
+        // given: a database of its own, the split sees every user in it
+        MongoTemplate partition = partitionTemplate("users-export-split");
+        for (int i = 0; i < 10; i++) {
+            partition.save(new User(new ObjectId().toHexString(), "Ronnie James Dio " + i, "DIO", "##test"));
+        }
+        partition.save(new User("not-an-object-id", "Vivian Campbell", "DIO", "##test"));
+        UserPartitionService partitionService = new UserPartitionService(userRepository,
+                UserPartitions.single(partition, "users-export-split"), new UserProperties(), new SimpleMeterRegistry());
+        UserProperties properties = new UserProperties();
+        properties.getExport().setDirectory(Files.createTempDirectory("user-export"));
+        properties.getExport().setRangeUsers(3);
+        UserExportService exports = new UserExportService(userExportRepository, partitionService, objectMapper,
+                properties, new SimpleMeterRegistry());
+        exports.start();
+
+        // when
+        String id = exports.create().id();
+        UserExportStatus status = awaitExport(exports, id);
+
+        // then: boundaries at the 3rd, 6th and 9th ObjectId, the open end, and the other ids
+        assertEquals(UserExportState.DONE, status.state());
+        assertEquals(5, status.ranges());
+        assertEquals(11, status.users());
+        List<String> lines;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(exports.file(id).orElseThrow()))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+        assertEquals(11, lines.stream().distinct().count());
+        exports.stop();
+        userExportRepository.deleteById(id);
+        partition.getDb().drop();
+    }
+
+    @Test
+    void shouldRecordTheStateOfARunningExportBeforeStopReturns() throws Exception {
+
+        // given: a database of its own with ranges of one user, the export is still running at the stop
+        MongoTemplate partition = partitionTemplate("users-export-stop");
+        for (int i = 0; i < 200; i++) {
+            partition.save(new User(new ObjectId().toHexString(), "Ritchie Blackmore " + i, "RAINBOW", "##test"));
+        }
+        UserPartitionService partitionService = new UserPartitionService(userRepository,
+                UserPartitions.single(partition, "users-export-stop"), new UserProperties(), new SimpleMeterRegistry());
+        UserProperties properties = new UserProperties();
+        properties.getExport().setDirectory(Files.createTempDirectory("user-export"));
+        properties.getExport().setRangeUsers(1);
+        properties.getExport().setThreads(1);
+        UserExportService exports = new UserExportService(userExportRepository, partitionService, objectMapper,
+                properties, new SimpleMeterRegistry());
+        exports.start();
+        String id = exports.create().id();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (exports.status(id).orElseThrow().state() == UserExportState.QUEUED && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        // when
+        exports.stop();
+
+        // then
+        UserExportState state = userExportRepository.findById(id).orElseThrow().getState();
+        assertTrue(state == UserExportState.INTERRUPTED || state == UserExportState.DONE, state.name());
+        userExportRepository.deleteById(id);
+        partition.getDb().drop();
+    }
+
+    @Test
+    void shouldLeaveAnExportToTheInstanceHoldingItsLease() throws Exception {
+
+        // given: RUNNING on another instance that still renews its lease
+        UserProperties properties = new UserProperties();
+        properties.getExport().setDirectory(Files.createTempDirectory("user-export"));
+        UserExport running = new UserExport();
+        running.setId(new ObjectId().toHexString());
+        running.setState(UserExportState.RUNNING);
+        running.setCreatedAt(Instant.now());
+        running.setOwner("4711@other-host");
+        running.setLeaseUntil(Instant.now().plus(Duration.ofMinutes(1)));
+        userExportRepository.save(running);
+        UserExportService exports = new UserExportService(userExportRepository, userPartitionService, objectMapper,
+                properties, new SimpleMeterRegistry());
+
+        // when
+        exports.start();
+        boolean resumedWhileLeased = exports.resume(running.getId());
+        UserExport untouched = userExportRepository.findById(running.getId()).orElseThrow();
+        untouched.setLeaseUntil(Instant.now().minusSeconds(1));
+        userExportRepository.save(untouched);
+        boolean resumedAfterLease = exports.resume(running.getId());
+        UserExportStatus status = awaitExport(exports, running.getId());
+
+        // then
+        assertFalse(resumedWhileLeased);
+        assertEquals(UserExportState.RUNNING, untouched.getState());
+        assertEquals("4711@other-host", untouched.getOwner());
+        assertTrue(resumedAfterLease);
+        assertEquals(UserExportState.DONE, status.state());
+        UserExport taken = userExportRepository.findById(running.getId()).orElseThrow();
+        assertNotEquals("4711@other-host", taken.getOwner());
+        assertNull(taken.getLeaseUntil());
+        exports.stop();
+        userExportRepository.deleteById(running.getId());
+    }
+
+    private static UserExportStatus awaitExport(UserExportService exports, String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (exports.status(id).orElseThrow().state() != UserExportState.DONE && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return exports.status(id).orElseThrow();
+    }
+
+    private static void gzip(Path file, String content) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void shouldReadOnlyTheRequestedFields() {
+
+        // given: ids after the cursor are the ones saved here
+        String cursor = new ObjectId().toHexString();
+        List<User> users = new ArrayList<>();
+        for (String name : List.of("Geezer Butler", "Tony Iommi", "Bill Ward")) {
+            users.add(mongoOperations.insert(new User(new ObjectId().toHexString(), name, "SABBATH", "##test")));
+        }
+        List<String> ids = users.stream().map(User::getId).toList();
+
+        // when
+        UserPage page = underTest.getPage(cursor, 2, Set.of(UserField.fromProperty(" Name ")));
+        List<User> streamed;
+        try (Stream<User> all = underTest.streamAll(Set.of(UserField.CODE))) {
+            streamed = all.filter(user -> ids.contains(user.getId())).toList();
+        }
+
+        // then
+        assertEquals(List.of("Geezer Butler", "Tony Iommi"), page.items().stream().map(User::getName).toList());
+        assertEquals(ids.get(1), page.nextCursor());
+        for (User user : page.items()) {
+            assertNull(user.getCode());
+            assertNull(user.getDescription());
+            assertNull(user.getVersion());
+        }
+        assertEquals(3, streamed.size());
+        assertTrue(streamed.stream().allMatch(user -> "SABBATH".equals(user.getCode()) && user.getName() == null));
+        assertThrows(IllegalArgumentException.class, () -> UserField.fromProperty("version"));
+        mongoOperations.remove(new Query(where("id").in(ids)), User.class);
+    }
+
+    @Test
+    void shouldPageOverStringIdsAndObjectIdsAlike() {
+
+        // given: string ids sort before every ObjectId
+        List<String> ids = new ArrayList<>(List.of("page-a", "page-b"));
+        ids.add(new ObjectId().toHexString());
+        ids.add(new ObjectId().toHexString());
+        for (String id : ids) {
+            mongoOperations.insert(new User(id, "Ritchie Blackmore", "RAINBOW", "##test"));
+        }
+
+        // when: pages of one end on every id
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserPage page = underTest.getPage(cursor, 1, Set.of(UserField.NAME));
+            page.items().forEach(user -> paged.add(user.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // then
+        assertEquals(ids, paged.stream().filter(ids::contains).toList());
+        mongoOperations.remove(new Query(where("id").in(ids)), User.class);
+    }
+
+    @Test
+    void shouldMergePartitionPagesInIdOrder() {
+
+        // given: in String order the ObjectIds would come before "zappa"
+        MongoTemplate first = partitionTemplate("users-partition-order-0");
+        MongoTemplate second = partitionTemplate("users-partition-order-1");
+        UserPartitions partitions = new UserPartitions(List.of(first, second),
+                List.of("users-partition-order-0", "users-partition-order-1"), null, List.of());
+        UserPartitionService partitionService = new UserPartitionService(userRepository, partitions,
+                new UserProperties(), new SimpleMeterRegistry());
+        partitionService.start();
+        List<String> ids = new ArrayList<>(List.of("Zappa", "zappa", "\u00e9mile", "8"));
+        for (int i = 0; i < 6; i++) {
+            ids.add(new ObjectId().toHexString());
+        }
+        for (String id : ids) {
+            partitionService.forWrite(id).insert(new User(id, "Frank Zappa", "MOTHERS", "##test"));
+        }
+        ids.sort(UserIds.ORDER);
+
+        // when
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            List<User> page = partitionService.findPage(cursor, 3, null);
+            page.forEach(user -> paged.add(user.getId()));
+            cursor = page.size() < 3 ? null : page.get(2).getId();
+        } while (cursor != null);
+
+        // then
+        assertEquals(List.of("8", "Zappa", "zappa", "\u00e9mile"), ids.subList(0, 4));
+        assertEquals(ids, paged);
+        assertTrue(UserIds.compare("zappa", new ObjectId().toHexString()) < 0);
+        partitionService.stop();
+        first.getDb().drop();
+        second.getDb().drop();
+    }
+
+    @Test
+    void shouldProjectReadsOverEveryPartition() {
+
+        // given
+        MongoTemplate first = partitionTemplate("users-partition-fields-0");
+        MongoTemplate second = partitionTemplate("users-partition-fields-1");
+        UserPartitions partitions = new UserPartitions(List.of(first, second),
+                List.of("users-partition-fields-0", "users-partition-fields-1"), null, List.of());
+        UserPartitionService partitionService = new UserPartitionService(userRepository, partitions,
+                new UserProperties(), new SimpleMeterRegistry());
+        partitionService.start();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            User user = new User(new ObjectId().toHexString(), "Glenn Hughes " + i, "PURPLE", "##test");
+            partitionService.forWrite(user.getId()).insert(user);
+            ids.add(user.getId());
+        }
+
+        // when
+        List<User> page = partitionService.findPage(null, 4, Set.of(UserField.DESCRIPTION));
+        List<User> streamed;
+        try (Stream<User> all = partitionService.streamAll(Set.of(UserField.NAME))) {
+            streamed = all.toList();
+        }
+
+        // then
+        assertEquals(ids.subList(0, 4), page.stream().map(User::getId).toList());
+        assertTrue(page.stream().allMatch(user -> "##test".equals(user.getDescription()) && user.getName() == null));
+        assertEquals(6, streamed.size());
+        assertTrue(streamed.stream().allMatch(user -> user.getName() != null && user.getCode() == null));
+        partitionService.stop();
+        first.getDb().drop();
+        second.getDb().drop();
+    }
+
+    @Test
+    void shouldStreamOnTheListReadPath() {
+
+        // given
+        ReadPreference secondary = UserReadRouting.preference("secondaryPreferred", Duration.ofSeconds(90));
+        List<Query> sent = new ArrayList<>();
+        MongoTemplate template = new MongoTemplate(mongoClient, mongoOperations.getCollection("user")
+                .getNamespace().getDatabaseName()) {
+
+            @Override
+            public <T> Stream<T> stream(Query query, Class<T> entityType, String collectionName) {
+                sent.add(query);
+                return super.stream(query, entityType, collectionName);
+            }
+        };
+        UserService routed = new UserService(userRepository, mongoOperations, reactiveMongoOperations, cacheManager,
+                new UserProperties(), new SimpleMeterRegistry(), new CollectionRevision(), userBloomFilterService,
+                userPartitionService, new UserReadRouting(template, mongoClient,
+                        Map.of(UserReadRouting.Path.LIST, secondary), false));
+        User user = mongoOperations.save(new User(new ObjectId().toHexString(), "Jon Lord", "PURPLE", "##test"));
+
+        // when
+        List<String> names;
+        try (Stream<User> users = routed.streamAll(null)) {
+            names = users.map(User::getName).toList();
+        }
+
+        // then
+        assertTrue(names.contains("Jon Lord"));
+        assertEquals(1, sent.size());
+        assertEquals(secondary, sent.get(0).getReadPreference());
+        verify(userRepository, never()).streamAllBy();
+        mongoOperations.remove(user);
+    }
+
+    @Test
+    void shouldSearchTextByScoreAPageAtATime() {
+
+        // given: the in-memory engine has no $text, a template stands in for the text index
+        List<Query> sent = new ArrayList<>();
+        MongoTemplate index = textIndexTemplate("users-search-test", sent,
+                new Document("_id", "1").append("name", "Ian Gillan").append("score", 2.5),
+                new Document("_id", "2").append("name", "Ian Paice").append("score", 1.5));
+        UserService search = new UserService(userRepository, mongoOperations, reactiveMongoOperations, cacheManager,
+                new UserProperties(), new SimpleMeterRegistry(), new CollectionRevision(), userBloomFilterService,
+                userPartitionService, UserReadRouting.primary(index));
+
+        // when
+        List<User> found = search.search("deep purple", 1, 2, Set.of(UserField.NAME));
+
+        // then
+        assertEquals(List.of("Ian Gillan", "Ian Paice"), found.stream().map(User::getName).toList());
+        Query query = sent.get(0);
+        assertEquals("deep purple", query.getQueryObject().get("$text", Document.class).getString("$search"));
+        assertEquals(new Document("$meta", "textScore"), query.getSortObject().get("score"));
+        assertEquals(2, query.getSkip());
+        assertEquals(2, query.getLimit());
+        assertEquals(1, query.getFieldsObject().get("name"));
+        assertFalse(query.getFieldsObject().containsKey("code"));
+    }
+
+    @Test
+    void shouldMergePartitionSearchesByScore() {
+
+        // given
+        List<Query> sent = new java.util.concurrent.CopyOnWriteArrayList<>();
+        MongoTemplate first = textIndexTemplate("users-search-test-0", sent,
+                new Document("_id", "1").append("name", "Roger Glover").append("score", 3.0),
+                new Document("_id", "2").append("name", "Jon Lord").append("score", 1.0));
+        MongoTemplate second = textIndexTemplate("users-search-test-1", sent,
+                new Document("_id", "3").append("name", "Ritchie Blackmore").append("score", 2.0),
+                new Document("_id", "4").append("name", "Steve Morse").append("score", 0.5));
+        UserPartitions partitions = new UserPartitions(List.of(first, second),
+                List.of("users-search-test-0", "users-search-test-1"), null, List.of());
+        UserPartitionService partitionService = new UserPartitionService(userRepository, partitions,
+                new UserProperties(), new SimpleMeterRegistry());
+        partitionService.start();
+
+        // when
+        List<User> firstPage = partitionService.search("purple", 0, 3, null);
+        List<User> secondPage = partitionService.search("purple", 1, 2, null);
+
+        // then
+        assertEquals(List.of("1", "3", "2"), firstPage.stream().map(User::getId).toList());
+        assertEquals(List.of("2", "4"), secondPage.stream().map(User::getId).toList());
+        // every partition is asked for all the matches up to the end of the page
+        assertEquals(List.of(3, 3, 4, 4), sent.stream().map(Query::getLimit).sorted().toList());
+        partitionService.stop();
+    }
+
+    // answers every find with the given hits, best first, and records the query it got
+    private MongoTemplate textIndexTemplate(String database, List<Query> sent, Document... hits) {
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient, database), mongoConverter) {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+                sent.add(query);
+                return Stream.of(hits)
+                        .limit(query.getLimit() > 0 ? query.getLimit() : hits.length)
+                        .map(hit -> entityClass == Document.class
+                                ? (T) new Document(hit)
+                                : getConverter().read(entityClass, new Document(hit)))
+                        .toList();
+            }
+        };
+    }
+
+    @Test
+    void shouldRefuseBloomFilterWithoutChangeStream() {
+
+        // given
+        UserProperties properties = new UserProperties();
+        properties.getBloomFilter().setEnabled(true);
+        UserBloomFilterService bloomFilter = new UserBloomFilterService(userRepository, mongoOperations,
+                properties, new SimpleMeterRegistry(), userPartitionService);
+
+        // when
+        IllegalStateException refused = assertThrows(IllegalStateException.class, bloomFilter::start);
+
+        // then
+        assertTrue(refused.getMessage().contains("users.changes.enabled"));
+        assertTrue(bloomFilter.mightContainId("anything"));
+    }
+
+    @Test
+    void shouldNotCacheMisses() {
+
+        // given
+        when(userRepository.findById("404")).thenReturn(Optional.empty());
+
+        // when
+        underTest.getById("404");
+        underTest.getById("404");
+
+        // then
+        verify(userRepository, times(2)).findById("404");
+    }
+
+    @Test
+    void shouldRefreshCacheOnUpdate() {
+
+        // given
+        when(userRepository.findById("2"))
+                .thenReturn(Optional.of(new User("2", "Paul McCartney", "Beatles", "##test")));
+        underTest.getById("2");
+
+        // when
+        User updated = new User("2", "Paul Updated", "Wings", "##test");
+        updated.setVersion(1L);
+        underTest.update(updated);
+        User cached = underTest.getById("2");
+
+        // then
+        assertEquals("Paul Updated", cached.getName());
+        verify(userRepository, times(1)).findById("2");
+    }
+
+    @Test
+    void shouldEvictCacheOnDelete() {
+
+        // given
+        when(userRepository.findById("3"))
+                .thenReturn(Optional.of(new User("3", "Mick Jagg", "Beatles", "##test")));
+        underTest.getById("3");
+
+        // when
+        underTest.delById("3");
+        underTest.getById("3");
+
+        // then
+        verify(userRepository).deleteById("3");
+        verify(userRepository, times(2)).findById("3");
+    }
+
+    @Test
+    void shouldHaveIndexForEveryRepositoryQuery() {
+
+        // when
+        List<String> unsupported = userIndexService.verifyQueryMethods();
+
+        // then
+        assertTrue(unsupported.isEmpty(), unsupported.toString());
+    }
+
+    @Test
+    void shouldEvictCacheOnChangeByAnotherWriter() throws InterruptedException {
+
+        // given
+        User user = new User(new ObjectId().toHexString(), "Roger Taylor", "Queen", "##test");
+        cacheManager.getCache(CacheConfig.USERS).put(user.getId(), user);
+
+        // when
+        mongoOperations.save(user);
+
+        // then
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheManager.getCache(CacheConfig.USERS).get(user.getId()) != null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNull(cacheManager.getCache(CacheConfig.USERS).get(user.getId()));
+        mongoOperations.remove(user);
+    }
+
+    @Test
+    void shouldResumeChangeFeedAfterToken() throws Exception {
+
+        // given: the live feed may still carry changes of earlier tests
+        String brianId = new ObjectId().toHexString();
+        CompletableFuture<UserChange> first = userChangeService.changes(null)
+                .filter(change -> brianId.equals(change.id()))
+                .next().toFuture();
+        User brian = mongoOperations.save(new User(brianId, "Brian May", "Queen", "##test"));
+        User john = mongoOperations.save(new User("John Deacon", "Queen", "##test"));
+        UserChange brianInserted = first.get(5, TimeUnit.SECONDS);
+
+        // when
+        UserChange next = userChangeService.changes(brianInserted.resumeToken()).blockFirst(Duration.ofSeconds(5));
+
+        // then
+        assertEquals(UserChange.Type.INSERT, brianInserted.type());
+        assertEquals(brian.getId(), brianInserted.id());
+        assertEquals(john.getId(), next.id());
+        assertEquals("John Deacon", next.user().getName());
+        mongoOperations.remove(brian);
+        mongoOperations.remove(john);
+    }
+
+    @Test
+    void shouldCoalesceQueuedWritesPerId() throws InterruptedException {
+
+        // given
+        UserWriteBehindService writeBehind = writeBehind(10, UserProperties.WriteBehind.Durability.ACCEPTED);
+        String id = new ObjectId().toHexString();
+
+        // when
+        writeBehind.write(new User(id, "Kurt Cobain", "Nirvana", "##test"));
+        writeBehind.write(new User(id, "Kurt Cobain", "Nirvana Unplugged", "##test"));
+        writeBehind.stop();
+
+        // then
+        User stored = mongoOperations.findById(id, User.class);
+        assertEquals("Nirvana Unplugged", stored.getCode());
+        assertEquals(1L, stored.getVersion());
+        mongoOperations.remove(stored);
+    }
+
+    @Test
+    void shouldRejectWritesWhenQueueIsFull() throws InterruptedException {
+
+        // given
+        UserWriteBehindService writeBehind = writeBehind(1, UserProperties.WriteBehind.Durability.ACCEPTED);
+        User queued = writeBehind.write(new User("Dave Grohl", "FooFighters", "##test"));
+
+        User rejected = new User(new ObjectId().toHexString(), "Taylor Hawkins", "FooFighters", "##test");
+
+        // when / then
+        assertThrows(RejectedExecutionException.class, () -> writeBehind.write(rejected));
+        assertNull(cacheManager.getCache(CacheConfig.USERS).get(rejected.getId()));
+        writeBehind.stop();
+        mongoOperations.remove(query(where("id").is(queued.getId())), User.class);
+    }
+
+    @Test
+    void shouldAckDurableWritesAfterFlush() throws InterruptedException {
+
+        // given
+        UserWriteBehindService writeBehind = writeBehind(10, UserProperties.WriteBehind.Durability.FLUSHED);
+        when(userRepository.findAllById(any())).thenAnswer(invocation -> List.of());
+
+        // when
+        User written = writeBehind.write(new User("Chris Cornell", "Soundgarden", "##test"));
+
+        // then
+        assertNotNull(mongoOperations.findById(written.getId(), User.class));
+        writeBehind.stop();
+        mongoOperations.remove(query(where("id").is(written.getId())), User.class);
+    }
+
+    private UserWriteBehindService writeBehind(int capacity, UserProperties.WriteBehind.Durability durability) {
+        UserProperties properties = new UserProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setCapacity(capacity);
+        properties.getWriteBehind().setFlushInterval(Duration.ofMillis(20));
+        properties.getWriteBehind().setDurability(durability);
+        UserWriteBehindService writeBehind = new UserWriteBehindService(userRepository, mongoOperations,
+                cacheManager, properties, new SimpleMeterRegistry(), new CollectionRevision(), userBloomFilterService,
+                userPartitionService);
+        writeBehind.start();
+        return writeBehind;
+    }
+
+    private MongoTemplate partitionTemplate(String database) {
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient, database), mongoConverter);
+    }
+
+    private ReactiveMongoOperations reactivePartitionTemplate(String database) {
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, database),
+                mongoConverter);
+    }
+
+    private static String idInPartition(UserPartitions partitions, int partition) {
+        String id = new ObjectId().toHexString();
+        while (partitions.partitionOf(id) != partition) {
+            id = new ObjectId().toHexString();
+        }
+        return id;
+    }
+}